@@ -0,0 +1,99 @@
+#!/usr/bin/env python3
+"""
+原生可执行文件与 JVM 版本的启动对比
+分别启动各版本的 MCP 服务器，测量从启动进程到收到 initialize 响应的耗时，
+以及响应 tools/list 之后的常驻内存（RSS，读取 /proc，仅支持 Linux）
+
+用法:
+    mvn clean package && mvn -Pnative native:compile
+    python3 compare_native.py [运行次数，默认5]
+"""
+
+import json
+import os
+import statistics
+import subprocess
+import sys
+import time
+
+PROJECT_DIR = os.path.dirname(os.path.abspath(__file__))
+JAR = os.path.join(PROJECT_DIR, "target", "mcp-server-demo-1.0.0.jar")
+NATIVE = os.path.join(PROJECT_DIR, "target", "mcp-server-demo")
+FAST_START = os.path.join(PROJECT_DIR, "mcp-server-fast.sh")
+
+VARIANTS = [
+    ("JVM", ["java", "-Dmcp.server.enabled=true", "-jar", JAR], JAR),
+    ("JVM 快速启动", [FAST_START], os.path.join(PROJECT_DIR, "target", "fast-start", "application.jsa")),
+    ("原生", [NATIVE], NATIVE),
+]
+
+
+def request(request_id, method):
+    return json.dumps({"jsonrpc": "2.0", "id": request_id, "method": method, "params": {}}) + "\n"
+
+
+def read_rss_mb(pid):
+    """读取进程常驻内存（MB）"""
+    with open(f"/proc/{pid}/status") as f:
+        for line in f:
+            if line.startswith("VmRSS:"):
+                return int(line.split()[1]) / 1024
+    return float("nan")
+
+
+def measure_once(cmd):
+    """启动一次服务器，返回 (首个响应耗时 ms, RSS MB)"""
+    start = time.perf_counter()
+    process = subprocess.Popen(
+        cmd,
+        cwd=PROJECT_DIR,
+        stdin=subprocess.PIPE,
+        stdout=subprocess.PIPE,
+        stderr=subprocess.DEVNULL,
+        text=True,
+        bufsize=1
+    )
+    try:
+        process.stdin.write(request(1, "initialize"))
+        process.stdin.flush()
+        response = process.stdout.readline()
+        startup_ms = (time.perf_counter() - start) * 1000
+        if '"id":1' not in response:
+            raise RuntimeError(f"initialize 响应异常: {response!r}")
+
+        process.stdin.write(request(2, "tools/list"))
+        process.stdin.flush()
+        process.stdout.readline()
+        rss_mb = read_rss_mb(process.pid)
+    finally:
+        process.stdin.close()
+        process.wait(timeout=30)
+    return startup_ms, rss_mb
+
+
+def main():
+    runs = int(sys.argv[1]) if len(sys.argv) > 1 else 5
+    results = []
+    for name, cmd, required in VARIANTS:
+        if not os.path.exists(required):
+            print(f"⚠️  跳过 {name}: 未找到 {required}")
+            continue
+        print(f"🚀 {name}: 运行 {runs} 次...")
+        samples = [measure_once(cmd) for _ in range(runs)]
+        startup = statistics.median(s[0] for s in samples)
+        rss = statistics.median(s[1] for s in samples)
+        results.append((name, startup, rss))
+        print(f"   首个响应 {startup:.0f} ms, RSS {rss:.1f} MB")
+
+    if not results:
+        print("❌ 没有可运行的版本，请先构建")
+        sys.exit(1)
+
+    print("\n📊 对比结果（中位数）")
+    print(f"{'版本':<12}{'首个响应(ms)':>14}{'RSS(MB)':>12}")
+    for name, startup, rss in results:
+        print(f"{name:<12}{startup:>14.0f}{rss:>12.1f}")
+
+
+if __name__ == "__main__":
+    main()
@@ -0,0 +1,23 @@
+#!/bin/bash
+# MCP Server 快速启动脚本：Spring AOT + 延迟初始化 + AppCDS
+# 需先执行 mvn -Pfast-start clean package 生成带 AOT 代码的 jar.
+# 首次运行（或 jar 更新后）解压 jar 并做一次训练运行生成 AppCDS 归档，之后直接加载归档启动.
+# stdout 只用于 JSON-RPC，JVM 日志重定向到 stderr.
+cd "$(dirname "$0")"
+
+JAR=target/mcp-server-demo-1.0.0.jar
+APP_DIR=target/fast-start
+APP_JAR=$APP_DIR/mcp-server-demo-1.0.0.jar
+ARCHIVE=$APP_DIR/application.jsa
+JAVA_OPTS="-Dmcp.server.enabled=true -Dspring.aot.enabled=true -Dspring.profiles.active=fast-start -Xlog:disable"
+
+if [ ! -f "$ARCHIVE" ] || [ "$JAR" -nt "$ARCHIVE" ]; then
+    rm -rf "$APP_DIR"
+    java -Djarmode=tools -jar "$JAR" extract --destination "$APP_DIR" > /dev/null || exit 1
+    # 训练运行：只发送 initialize 和 tools/list，输入结束后进程退出并写出归档
+    printf '%s\n' '{"jsonrpc":"2.0","id":1,"method":"initialize","params":{}}' \
+                  '{"jsonrpc":"2.0","id":2,"method":"tools/list"}' |
+        java -XX:ArchiveClassesAtExit="$ARCHIVE" $JAVA_OPTS -Xlog:all=error:stderr -jar "$APP_JAR" > /dev/null
+fi
+
+exec java -XX:SharedArchiveFile="$ARCHIVE" $JAVA_OPTS -Xlog:all=warning:stderr -jar "$APP_JAR"
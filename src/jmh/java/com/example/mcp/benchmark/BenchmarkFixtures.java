@@ -0,0 +1,76 @@
+package com.example.mcp.benchmark;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import com.example.mcp.metrics.MetricsRegistry;
+import com.example.mcp.persistence.AttachmentWriteBehind;
+import com.example.mcp.persistence.IssueCache;
+import com.example.mcp.tools.SystemLogTools;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 基准测试共用的对象构建
+ * 不启动 Spring 容器，按生产代码的构造方式直接组装，数据库使用 MySQL 兼容模式的内存 H2.
+ */
+public final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * 新建一个独立的内存数据库并建表，连接池与生产一致使用 Druid
+     */
+    public static DruidDataSource h2DataSource() {
+        DruidDataSource dataSource = new DruidDataSource();
+        dataSource.setUrl("jdbc:h2:mem:bench-" + UUID.randomUUID() +
+                ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        dataSource.setDriverClassName("org.h2.Driver");
+        dataSource.setInitialSize(1);
+        dataSource.setMaxActive(8);
+        new ResourceDatabasePopulator(new ClassPathResource("bench-schema.sql")).execute(dataSource);
+        return dataSource;
+    }
+
+    public static SystemLogTools systemLogTools(DruidDataSource dataSource, MetricsRegistry metrics) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        IssueCache issueCache = new IssueCache(4_000_000, 10_000, 300);
+        AttachmentWriteBehind writeBehind = new AttachmentWriteBehind(jdbcTemplate, transactionTemplate, issueCache,
+                metrics, false, 200, 200, 10_000, false, System.getProperty("java.io.tmpdir"));
+        return new SystemLogTools(jdbcTemplate, transactionTemplate, writeBehind, issueCache, metrics, 1800, 500);
+    }
+
+    /**
+     * 插入若干条待处理问题日志，每条带两个附件
+     * @return 插入的问题日志ID
+     */
+    public static List<String> seedIssues(DruidDataSource dataSource, int count) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        List<Object[]> issues = new ArrayList<>(count);
+        List<Object[]> attachments = new ArrayList<>(count * 2);
+        List<String> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String id = UUID.randomUUID().toString();
+            ids.add(id);
+            issues.add(new Object[] {id, "1", "问题描述 " + i, "CREATE TABLE t" + i + " (id BIGINT)",
+                    "改造前 " + i, "改造后 " + i, "业务介绍 " + i, "creator-" + (i % 10), "新需求 " + i});
+            for (int j = 0; j < 2; j++) {
+                attachments.add(new Object[] {UUID.randomUUID().toString(), id, "/files/" + id + "/" + j + ".png",
+                        j + ".png", j});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO system_issue_log (id, type, description, create_table_sql, " +
+                "before_transformation, transformation, business_context, creator, new_requirement, status, created_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 1, NOW())", issues);
+        jdbcTemplate.batchUpdate("INSERT INTO sys_attachment (id, target_id, file_path, file_name, type, sort_order, " +
+                "created_at) VALUES (?, ?, ?, ?, 1, ?, NOW())", attachments);
+        return ids;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.mcp.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单次工具调用日志的开销
+ * 用与工具方法相同的 log.info("...: {}", text) 形式，对比同步文件输出、异步队列输出和关闭日志三种配置.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoggingBenchmark {
+
+    private static final int MAX_MESSAGE_CHARS = 2000;
+
+    @Param({"sync", "async", "off"})
+    public String mode;
+
+    @Param({"16", "65536"})
+    public int payloadLength;
+
+    private Logger logger;
+    private Appender<ILoggingEvent> appender;
+    private File file;
+    private String payload;
+
+    @Setup
+    public void setUp() throws Exception {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        file = File.createTempFile("mcp-logging-benchmark", ".log");
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{HH:mm:ss.SSS} [%thread] %-5level %logger{36} - %.-" + MAX_MESSAGE_CHARS + "msg%n");
+        encoder.start();
+
+        FileAppender<ILoggingEvent> fileAppender = new FileAppender<>();
+        fileAppender.setContext(context);
+        fileAppender.setFile(file.getAbsolutePath());
+        fileAppender.setEncoder(encoder);
+        fileAppender.setImmediateFlush("sync".equals(mode));
+        fileAppender.start();
+
+        if ("async".equals(mode)) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(8192);
+            async.setDiscardingThreshold(2048);
+            async.addAppender(fileAppender);
+            async.start();
+            appender = async;
+        } else {
+            appender = fileAppender;
+        }
+
+        logger = context.getLogger("benchmark.logging");
+        logger.setAdditive(false);
+        logger.detachAndStopAllAppenders();
+        logger.addAppender(appender);
+        logger.setLevel("off".equals(mode) ? Level.OFF : Level.INFO);
+
+        StringBuilder sb = new StringBuilder(payloadLength);
+        for (int i = 0; i < payloadLength; i++) {
+            sb.append((char) ('a' + i % 26));
+        }
+        payload = sb.toString();
+    }
+
+    @TearDown
+    public void tearDown() {
+        logger.detachAndStopAllAppenders();
+        file.delete();
+    }
+
+    @Benchmark
+    public void toolCallLog() {
+        logger.info("转大写: {}", payload);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.mcp.expr;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 表达式基准：解析编译一次的开销，以及编译后换变量取值重复求值的开销
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpressionBenchmark {
+
+    private static final String SOURCE = "2 * x ^ 2 + sin(pi / 4) * y - max(x, y, 1.5) / (1 + abs(x - y)) % 7";
+
+    private CompiledExpression compiled;
+    private double x;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        compiled = CompiledExpression.compile(SOURCE);
+    }
+
+    @Benchmark
+    public CompiledExpression compile() {
+        return CompiledExpression.compile(SOURCE);
+    }
+
+    @Benchmark
+    public double evaluateCompiled() {
+        x += 0.5;
+        return compiled.evaluate(x, 4.25);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.mcp.numeric;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 数组批量运算基准：对比装箱 List 逐个累加与基本类型展开循环（达到阈值后并行）的耗时
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DoubleArraysBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private double[] a;
+    private double[] b;
+    private List<Double> boxed;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        a = random.doubles(size).toArray();
+        b = random.doubles(size).toArray();
+        boxed = Arrays.stream(a).boxed().toList();
+    }
+
+    @Benchmark
+    public double boxedSum() {
+        double sum = 0;
+        for (Double value : boxed) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double sum() {
+        return DoubleArrays.sum(a);
+    }
+
+    @Benchmark
+    public double dot() {
+        return DoubleArrays.dot(a, b);
+    }
+
+    @Benchmark
+    public double[] multiply() {
+        return DoubleArrays.elementwise(a, DoubleArrays.Operation.MULTIPLY, b);
+    }
+
+    @Benchmark
+    public double[] percentiles() {
+        return DoubleArrays.percentiles(a, new double[] {50, 90, 99});
+    }
+}
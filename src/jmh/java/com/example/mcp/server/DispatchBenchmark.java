@@ -0,0 +1,89 @@
+package com.example.mcp.server;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import com.example.mcp.benchmark.BenchmarkFixtures;
+import com.example.mcp.metrics.MetricsRegistry;
+import com.example.mcp.tools.*;
+import com.example.mcp.user.UserStore;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 端到端 JSON-RPC 处理基准
+ * 每次调用把一批请求行送入 {@link McpStdioServer#serve}，覆盖读取、解析、分发、工具调用和响应写出.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DispatchBenchmark {
+
+    private static final int LINES = 1000;
+
+    @Param({"true", "false"})
+    public boolean concurrent;
+
+    private DruidDataSource dataSource;
+    private McpStdioServer server;
+    private byte[] toolCallInput;
+    private byte[] toolsListInput;
+    private byte[] batchInput;
+
+    @Setup
+    public void setUp() {
+        dataSource = BenchmarkFixtures.h2DataSource();
+        MetricsRegistry metrics = new MetricsRegistry();
+        DefaultListableBeanFactory beans = new DefaultListableBeanFactory();
+        for (Object tool : new Object[] {new CalculatorTools(10_000), new StringTools(200), new TimeTools(), new UserTools(new UserStore()),
+                new CryptoTools(), BenchmarkFixtures.systemLogTools(dataSource, metrics), new MetricsTools(metrics)}) {
+            beans.registerSingleton(tool.getClass().getName(), tool);
+        }
+        server = new McpStdioServer(beans, metrics, new StandardEnvironment(), concurrent, 64);
+        toolCallInput = lines(i -> "{\"jsonrpc\":\"2.0\",\"id\":" + i + ",\"method\":\"tools/call\"," +
+                "\"params\":{\"name\":\"calculator_add\",\"arguments\":{\"a\":" + i + ",\"b\":2}}}");
+        toolsListInput = lines(i -> "{\"jsonrpc\":\"2.0\",\"id\":" + i + ",\"method\":\"tools/list\"}");
+        batchInput = lines(i -> "[{\"jsonrpc\":\"2.0\",\"id\":" + i + ",\"method\":\"tools/call\"," +
+                "\"params\":{\"name\":\"string_touppercase\",\"arguments\":{\"text\":\"hello\"}}}," +
+                "{\"jsonrpc\":\"2.0\",\"id\":\"b" + i + "\",\"method\":\"tools/call\"," +
+                "\"params\":{\"name\":\"calculator_divide\",\"arguments\":{\"a\":10,\"b\":4}}}]");
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void toolCall() {
+        server.serve(new ByteArrayInputStream(toolCallInput), OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void toolsList() {
+        server.serve(new ByteArrayInputStream(toolsListInput), OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void batchOfTwo() {
+        server.serve(new ByteArrayInputStream(batchInput), OutputStream.nullOutputStream());
+    }
+
+    private static byte[] lines(java.util.function.IntFunction<String> line) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < LINES; i++) {
+            sb.append(line.apply(i)).append('\n');
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.mcp.server;
+
+import com.example.mcp.tools.CalculatorTools;
+import com.example.mcp.tools.StringTools;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * callTool 参数转换基准
+ * 参数按 Jackson 反序列化 tools/call 时的实际类型构造：整数为 Integer，小数为 Double.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ToolInvokerBenchmark {
+
+    private ToolInvoker intArgs;
+    private ToolInvoker widenedArgs;
+    private ToolInvoker stringArg;
+    private ToolInvoker spreadArgs;
+    private Map<String, Object> addArgs;
+    private Map<String, Object> powerArgs;
+    private Map<String, Object> textArgs;
+    private Map<String, Object> fiveArgs;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        intArgs = ToolInvoker.create(new NoopTools(), NoopTools.class.getMethod("ints", int.class, int.class));
+        widenedArgs = ToolInvoker.create(new NoopTools(),
+                NoopTools.class.getMethod("doubles", double.class, Double.class));
+        stringArg = ToolInvoker.create(new NoopTools(), NoopTools.class.getMethod("text", String.class));
+        spreadArgs = ToolInvoker.create(new NoopTools(), NoopTools.class.getMethod("five",
+                String.class, Integer.class, Long.class, Boolean.class, String.class));
+
+        addArgs = new HashMap<>(Map.of("a", 1, "b", 2));
+        // Jackson 将 2 解析为 Integer，double 参数需要拓宽转换
+        powerArgs = new HashMap<>(Map.of("a", 2, "b", 10.5));
+        textArgs = new HashMap<>(Map.of("text", "hello"));
+        fiveArgs = new HashMap<>(Map.of("a", "x", "b", 1, "c", 2, "d", true, "e", 42));
+    }
+
+    @Benchmark
+    public Object primitiveInts() throws Exception {
+        return intArgs.invoke(addArgs);
+    }
+
+    @Benchmark
+    public Object widenedDoubles() throws Exception {
+        return widenedArgs.invoke(powerArgs);
+    }
+
+    @Benchmark
+    public Object singleString() throws Exception {
+        return stringArg.invoke(textArgs);
+    }
+
+    /**
+     * 超过 4 个参数时走 Object[] 展开路径，且包含 Integer 到 Long、数字到 String 的转换
+     */
+    @Benchmark
+    public Object spreadFiveArgs() throws Exception {
+        return spreadArgs.invoke(fiveArgs);
+    }
+
+    /**
+     * 只测转换和分发，方法体不做任何工作，与 {@link CalculatorTools}、{@link StringTools} 的真实工具分开衡量
+     */
+    public static class NoopTools {
+
+        public int ints(int a, int b) {
+            return a;
+        }
+
+        public double doubles(double a, Double b) {
+            return a;
+        }
+
+        public String text(String text) {
+            return text;
+        }
+
+        public Object five(String a, Integer b, Long c, Boolean d, String e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.mcp.server;
+
+import com.example.mcp.metrics.MetricsRegistry;
+import com.example.mcp.tools.*;
+import com.example.mcp.user.UserStore;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * tools/list 生成基准：缓存结果的写出，以及工具集合变化时的重建
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ToolRegistryBenchmark {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private ToolRegistry registry;
+    private JsonGenerator generator;
+    private Object[] toolObjects;
+
+    @Setup
+    public void setUp() throws IOException {
+        toolObjects = new Object[] {new CalculatorTools(10_000), new StringTools(200), new TimeTools(), new UserTools(new UserStore()),
+                new CryptoTools()};
+        registry = new ToolRegistry(mapper, new MetricsRegistry());
+        registry.register(toolObjects);
+        generator = mapper.createGenerator(OutputStream.nullOutputStream());
+    }
+
+    /**
+     * 写出缓存的 tools/list 结果
+     */
+    @Benchmark
+    public void writeCachedListing() throws IOException {
+        registry.listResult().serialize(generator, null);
+        generator.flush();
+    }
+
+    /**
+     * 重新注册全部工具：取编译期生成的定义并重建列表缓存
+     */
+    @Benchmark
+    public Object rebuildListing() {
+        registry.register(toolObjects);
+        return registry.listResult();
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.mcp.tools;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import com.example.mcp.benchmark.BenchmarkFixtures;
+import com.example.mcp.metrics.MetricsRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SystemLogTools 基准，数据库为 MySQL 兼容模式的内存 H2
+ * 结果反映 SQL 构造、结果集映射、缓存和渲染的开销，不代表真实 MySQL 的网络和磁盘延迟.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SystemLogToolsBenchmark {
+
+    private static final int SEEDED_ISSUES = 2000;
+
+    private DruidDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private SystemLogTools tools;
+    private List<String> ids;
+    private List<Map<String, Object>> batch;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataSource = BenchmarkFixtures.h2DataSource();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        tools = BenchmarkFixtures.systemLogTools(dataSource, new MetricsRegistry());
+        ids = BenchmarkFixtures.seedIssues(dataSource, SEEDED_ISSUES);
+        batch = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Map<String, Object> record = new LinkedHashMap<>();
+            record.put("type", 1);
+            record.put("description", "批量问题 " + i);
+            record.put("creator", "bench");
+            batch.add(record);
+        }
+    }
+
+    /**
+     * 领取会把记录置为处理中，每轮迭代前恢复为待处理，保证每次都能领到记录
+     */
+    @Setup(Level.Iteration)
+    public void resetClaims() {
+        jdbcTemplate.update("UPDATE system_issue_log SET status = 1, claimed_by = NULL, lease_expires_at = NULL " +
+                "WHERE creator <> 'bench'");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    /**
+     * 按ID读取，热点集合远小于缓存容量，基本命中缓存
+     */
+    @Benchmark
+    public String getByIdCached() {
+        return tools.getSystemLogById(ids.get(ThreadLocalRandom.current().nextInt(64)));
+    }
+
+    /**
+     * 按ID读取后立即失效，每次都走数据库加载和渲染
+     */
+    @Benchmark
+    public String getByIdUncached() {
+        String id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        tools.updateSystemLog(id, 1, null);
+        return tools.getSystemLogById(id);
+    }
+
+    @Benchmark
+    public String claimTen() {
+        return tools.claimSystemLogs(10, 60, "bench-worker");
+    }
+
+    @Benchmark
+    public String listFirstPage() {
+        return tools.listSystemLogs(null, null, null, 50, null);
+    }
+
+    @Benchmark
+    public String listByCreator() {
+        return tools.listSystemLogs(null, null, "creator-3", 50, null);
+    }
+
+    @Benchmark
+    public String saveOne() {
+        return tools.saveSystemLog(1, "单条问题", null, null, null, null, null, null, "bench");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public String saveBatchOfHundred() {
+        return tools.saveSystemLogs(batch);
+    }
+
+    @Benchmark
+    public String saveAttachment() {
+        return tools.saveSystemAttachment(ids.get(ThreadLocalRandom.current().nextInt(ids.size())),
+                "/files/bench.png", "bench.png", 0);
+    }
+}
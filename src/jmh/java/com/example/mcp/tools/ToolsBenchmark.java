@@ -0,0 +1,233 @@
+package com.example.mcp.tools;
+
+import com.example.mcp.user.UserStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 内存型工具基准：直接调用各工具方法，包含方法内的日志开销
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ToolsBenchmark {
+
+    private final CalculatorTools calculator = new CalculatorTools(10_000);
+    private final StringTools strings = new StringTools(200);
+    private final CryptoTools crypto = new CryptoTools();
+    private final TimeTools time = new TimeTools();
+    private final UserTools users = new UserTools(new UserStore());
+
+    /**
+     * 文本类工具的输入，只有引用它的基准会按长度展开
+     */
+    @State(Scope.Benchmark)
+    public static class Text {
+
+        @Param({"16", "4096"})
+        public int length;
+
+        String value;
+        String base64;
+
+        @Setup
+        public void setUp() {
+            StringBuilder sb = new StringBuilder(length);
+            for (int i = 0; i < length; i++) {
+                sb.append((char) ('a' + i % 26));
+            }
+            value = sb.toString();
+            base64 = Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * 文件哈希的输入：按大小生成的随机内容临时文件
+     */
+    @State(Scope.Benchmark)
+    public static class DataFile {
+
+        @Param({"1048576", "67108864"})
+        public int size;
+
+        @Param({"SHA-256", "CRC32C", "XXH64"})
+        public String algorithm;
+
+        Path path;
+
+        @Setup
+        public void setUp() throws IOException {
+            byte[] content = new byte[size];
+            new Random(42).nextBytes(content);
+            path = Files.write(Files.createTempFile("hash-benchmark", ".bin"), content);
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    // ============= 计算器工具 =============
+
+    @Benchmark
+    public int calculatorAdd() {
+        return calculator.add(12345, 67890);
+    }
+
+    @Benchmark
+    public int calculatorSubtract() {
+        return calculator.subtract(12345, 67890);
+    }
+
+    @Benchmark
+    public int calculatorMultiply() {
+        return calculator.multiply(12345, 678);
+    }
+
+    @Benchmark
+    public String calculatorDivide() {
+        return calculator.divide(10, 3);
+    }
+
+    @Benchmark
+    public String calculatorSqrt() {
+        return calculator.sqrt(2);
+    }
+
+    @Benchmark
+    public String calculatorPower() {
+        return calculator.power(2, 10.5);
+    }
+
+    @Benchmark
+    public String calculatorEvaluate() {
+        return calculator.evaluate("2 * x ^ 2 + sin(pi / 4) - max(x, y) / 3", Map.of("x", 3, "y", 4.5));
+    }
+
+    // ============= 字符串工具 =============
+
+    @Benchmark
+    public String stringToUpperCase(Text text) {
+        return strings.toUpperCase(text.value);
+    }
+
+    @Benchmark
+    public String stringToLowerCase(Text text) {
+        return strings.toLowerCase(text.value);
+    }
+
+    @Benchmark
+    public String stringCountCharacters(Text text) {
+        return strings.countCharacters(text.value);
+    }
+
+    @Benchmark
+    public String stringReverseText(Text text) {
+        return strings.reverseText(text.value);
+    }
+
+    @Benchmark
+    public String stringGenerateRandomString(Text text) {
+        return strings.generateRandomString(text.length);
+    }
+
+    @Benchmark
+    public String stringCheckPalindrome(Text text) {
+        return strings.checkPalindrome(text.value);
+    }
+
+    // ============= 加密工具 =============
+
+    @Benchmark
+    public String cryptoBase64Encode(Text text) {
+        return crypto.base64Encode(text.value);
+    }
+
+    @Benchmark
+    public String cryptoBase64Decode(Text text) {
+        return crypto.base64Decode(text.base64);
+    }
+
+    @Benchmark
+    public String cryptoMd5Hash(Text text) {
+        return crypto.md5Hash(text.value);
+    }
+
+    @Benchmark
+    public String cryptoSha256Hash(Text text) {
+        return crypto.sha256Hash(text.value);
+    }
+
+    @Benchmark
+    public String cryptoHashText(Text text) {
+        return crypto.hashText(text.value, "XXH64");
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public String cryptoHashFile(DataFile file) {
+        return crypto.hashFile(file.path.toString(), file.algorithm);
+    }
+
+    @Benchmark
+    public String cryptoAnalyzePasswordStrength(Text text) {
+        return crypto.analyzePasswordStrength(text.value);
+    }
+
+    // ============= 时间工具 =============
+
+    @Benchmark
+    public String timeGetCurrentTime() {
+        return time.getCurrentTime();
+    }
+
+    @Benchmark
+    public String timeGetTimeByTimezone() {
+        return time.getTimeByTimezone("Asia/Shanghai");
+    }
+
+    @Benchmark
+    public String timeGetDayOfWeek() {
+        return time.getDayOfWeek();
+    }
+
+    @Benchmark
+    public String timeDaysBetween() {
+        return time.daysBetween("2024-01-15", "2025-06-30");
+    }
+
+    // ============= 用户工具 =============
+
+    @Benchmark
+    public String userGetUserById() {
+        return users.getUserById("002");
+    }
+
+    @Benchmark
+    public String userListAllUsers() {
+        return users.listAllUsers(null, null, null);
+    }
+
+    @Benchmark
+    public String userSearchUserByName() {
+        return users.searchUserByName("李", null, null, null);
+    }
+
+    @Benchmark
+    public String userCreateUser() {
+        return users.createUser("赵六", "zhaoliu@example.com", "测试工程师");
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.mcp.user;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 用户库恢复基准：临时目录中预先写入快照和日志尾部，每次调用从磁盘重建整个用户库
+ * snapshotEvery 小于 users 时大部分记录从快照载入，只有尾部从日志重放
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class UserJournalBenchmark {
+
+    @Param({"1000000"})
+    private int users;
+
+    @Param({"250000"})
+    private long snapshotEvery;
+
+    private Path dataDir;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        dataDir = Files.createTempDirectory("user-journal-bench");
+        UserJournal journal = new UserJournal(true, dataDir.toString(), snapshotEvery, false);
+        UserStore store = new UserStore(journal);
+        store.recover();
+        for (int i = 0; i < users; i++) {
+            store.create("用户" + i, "user" + i + "@example.com", i % 3 == 0 ? "工程师" : "设计师");
+        }
+        // 等待后台快照写完
+        journal.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dataDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public UserStore recover() throws Exception {
+        UserJournal journal = new UserJournal(true, dataDir.toString(), Long.MAX_VALUE, false);
+        UserStore store = new UserStore(journal);
+        store.recover();
+        journal.close();
+        return store;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.mcp.user;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户库基准：百万级用户下的主键、邮箱、职位查询和姓名子串搜索
+ * 姓名由常见姓氏加两个随机常用字组成，搜索结果最多取 100 条
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class UserStoreBenchmark {
+
+    private static final String SURNAMES = "王李张刘陈杨黄赵吴周徐孙马朱胡郭何高林罗";
+    private static final String GIVEN = "伟芳娜敏静丽强磊军洋勇艳杰娟涛明超秀霞平刚桂英华玉兰萍建国红";
+    private static final String[] POSITIONS = {"工程师", "设计师", "产品经理", "测试工程师", "运维工程师"};
+
+    @Param({"1000000"})
+    private int users;
+
+    private UserStore store;
+    private String probeName;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        store = new UserStore();
+        Random random = new Random(42);
+        for (int i = 0; i < users; i++) {
+            String name = "" + SURNAMES.charAt(random.nextInt(SURNAMES.length()))
+                    + GIVEN.charAt(random.nextInt(GIVEN.length()))
+                    + GIVEN.charAt(random.nextInt(GIVEN.length()));
+            store.insert(new User(Integer.toString(i), name, "user" + i + "@example.com",
+                    POSITIONS[random.nextInt(POSITIONS.length)]));
+        }
+        probeName = store.get(Integer.toString(users / 2)).name();
+    }
+
+    @Benchmark
+    public User getById() {
+        return store.get("500000");
+    }
+
+    @Benchmark
+    public List<User> findByEmail() {
+        return store.findByEmail("USER123456@example.com", 10);
+    }
+
+    @Benchmark
+    public List<User> findByPosition() {
+        return store.findByPosition("设计师", 100);
+    }
+
+    @Benchmark
+    public List<User> searchSingleChar() {
+        return store.searchByName("杰", 100);
+    }
+
+    @Benchmark
+    public List<User> searchFullName() {
+        return store.searchByName(probeName, 100);
+    }
+
+    @Benchmark
+    public List<User> searchMissing() {
+        return store.searchByName("欧阳", 100);
+    }
+}
@@ -0,0 +1,34 @@
+-- 基准测试用的 H2 表结构（MySQL 兼容模式），字段与线上 system_issue_log / sys_attachment 保持一致
+
+CREATE TABLE system_issue_log (
+    id                    VARCHAR(64)  NOT NULL PRIMARY KEY,
+    type                  VARCHAR(8),
+    description           TEXT,
+    remark                TEXT,
+    create_table_sql      TEXT,
+    new_requirement       TEXT,
+    before_transformation TEXT,
+    transformation        TEXT,
+    business_context      TEXT,
+    status                VARCHAR(8),
+    creator               VARCHAR(64),
+    created_at            DATETIME     DEFAULT CURRENT_TIMESTAMP,
+    claimed_by            VARCHAR(64),
+    lease_expires_at      DATETIME
+);
+
+CREATE INDEX idx_issue_log_status_created ON system_issue_log (status, created_at);
+CREATE INDEX idx_issue_log_created ON system_issue_log (created_at);
+CREATE INDEX idx_issue_log_creator_created ON system_issue_log (creator, created_at);
+
+CREATE TABLE sys_attachment (
+    id         VARCHAR(64) NOT NULL PRIMARY KEY,
+    target_id  VARCHAR(64),
+    file_path  VARCHAR(512),
+    file_name  VARCHAR(255),
+    type       INT,
+    sort_order INT,
+    created_at DATETIME
+);
+
+CREATE INDEX idx_attachment_target ON sys_attachment (target_id, sort_order);
@@ -1,17 +1,13 @@
 package com.example.mcp.config;
 
-import com.example.mcp.tools.CalculatorTools;
-import com.example.mcp.tools.TimeTools;
-import com.example.mcp.tools.UserTools;
-import com.example.mcp.tools.StringTools;
-import com.example.mcp.tools.CryptoTools;
-import com.example.mcp.tools.SystemLogTools;
+import com.example.mcp.tools.GeneratedToolRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -28,24 +24,15 @@ public class McpServerConfig {
     }
 
     /**
-     * 注册所有工具类
+     * 注册所有工具类，工具类列表由注解处理器在编译期生成
      */
     @Bean
-    public List<Object> allTools(
-            CalculatorTools calculatorTools,
-            TimeTools timeTools,
-            UserTools userTools,
-            StringTools stringTools,
-            CryptoTools cryptoTools,
-            SystemLogTools systemLogTools) {
+    public List<Object> allTools(ApplicationContext applicationContext) {
         log.info("注册所有工具类");
-        return Arrays.asList(
-            calculatorTools,
-            timeTools,
-            userTools,
-            stringTools,
-            cryptoTools,
-            systemLogTools
-        );
+        List<Object> tools = new ArrayList<>();
+        for (Class<?> toolClass : GeneratedToolRegistry.toolClasses()) {
+            tools.add(applicationContext.getBean(toolClass));
+        }
+        return tools;
     }
 }
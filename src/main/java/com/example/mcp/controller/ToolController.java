@@ -1,14 +1,18 @@
 package com.example.mcp.controller;
 
 import com.example.mcp.tools.*;
+import com.fasterxml.jackson.databind.util.RawValue;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.*;
 
 /**
  * 工具测试控制器
- * 提供 HTTP 端点来测试各个工具
+ * 提供 HTTP 端点来测试各个工具；/api/tools 下的通用端点与 stdio 服务器共用编译期生成的工具注册表
  */
 @RestController
 @RequestMapping("/api")
@@ -29,6 +33,17 @@ public class ToolController {
     @Autowired
     private CryptoTools cryptoTools;
 
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    private static final Map<String, ToolDefinition> DEFINITIONS = new TreeMap<>();
+
+    static {
+        for (ToolDefinition definition : GeneratedToolRegistry.definitions()) {
+            DEFINITIONS.put(definition.name(), definition);
+        }
+    }
+
     @GetMapping("/")
     public Map<String, Object> index() {
         Map<String, Object> result = new LinkedHashMap<>();
@@ -48,11 +63,43 @@ public class ToolController {
             "/api/user/list",
             "/api/user/get?id=001",
             "/api/crypto/base64/encode?text=hello",
-            "/api/crypto/md5?text=hello"
+            "/api/crypto/md5?text=hello",
+            "/api/tools",
+            "/api/tools/calculator_add?a=1&b=2"
         ));
         return result;
     }
 
+    // ============= 通用工具端点 =============
+
+    @GetMapping("/tools")
+    public List<Map<String, Object>> tools() {
+        List<Map<String, Object>> tools = new ArrayList<>();
+        for (ToolDefinition definition : DEFINITIONS.values()) {
+            Map<String, Object> tool = new LinkedHashMap<>();
+            tool.put("name", definition.name());
+            tool.put("description", definition.description());
+            tool.put("inputSchema", new RawValue(definition.inputSchema()));
+            tools.add(tool);
+        }
+        return tools;
+    }
+
+    @GetMapping("/tools/{name}")
+    public Map<String, Object> callTool(@PathVariable String name, @RequestParam Map<String, String> params) throws Exception {
+        ToolDefinition definition = DEFINITIONS.get(name.toLowerCase());
+        if (definition == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown tool: " + name);
+        }
+        Object output;
+        try {
+            output = definition.handler().call(applicationContext.getBean(definition.toolClass()), new HashMap<>(params));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        return result(definition.name(), params.toString(), output);
+    }
+
     // ============= 计算器工具 =============
 
     @GetMapping("/calc/add")
@@ -132,8 +179,11 @@ public class ToolController {
     // ============= 用户工具 =============
 
     @GetMapping("/user/list")
-    public Map<String, Object> listUsers() {
-        return result("listAllUsers", "all", userTools.listAllUsers());
+    public Map<String, Object> listUsers(
+            @RequestParam(required = false) Integer pageSize,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String fields) {
+        return result("listAllUsers", "all", userTools.listAllUsers(pageSize, cursor, fields));
     }
 
     @GetMapping("/user/get")
@@ -142,8 +192,12 @@ public class ToolController {
     }
 
     @GetMapping("/user/search")
-    public Map<String, Object> searchUser(@RequestParam String name) {
-        return result("searchUserByName", name, userTools.searchUserByName(name));
+    public Map<String, Object> searchUser(
+            @RequestParam String name,
+            @RequestParam(required = false) Integer pageSize,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String fields) {
+        return result("searchUserByName", name, userTools.searchUserByName(name, pageSize, cursor, fields));
     }
 
     @GetMapping("/user/create")
@@ -0,0 +1,56 @@
+package com.example.mcp.expr;
+
+import java.util.List;
+
+/**
+ * 编译后的算术表达式，不可变且线程安全，可缓存后重复求值
+ * 支持 + - * / % ^（右结合）、括号、科学计数法、常量 pi 和 e，以及常用数学函数.
+ */
+public final class CompiledExpression {
+
+    private final String source;
+    private final List<String> variables;
+    private final Evaluator evaluator;
+
+    CompiledExpression(String source, List<String> variables, Evaluator evaluator) {
+        this.source = source;
+        this.variables = variables;
+        this.evaluator = evaluator;
+    }
+
+    /**
+     * 解析并编译表达式
+     * @throws IllegalArgumentException 语法错误、未知函数或参数个数不符
+     */
+    public static CompiledExpression compile(String source) {
+        return ExpressionCompiler.compile(source);
+    }
+
+    public String source() {
+        return source;
+    }
+
+    /**
+     * 表达式中引用的变量名，按首次出现的顺序，也是 {@link #evaluate} 参数的顺序
+     */
+    public List<String> variables() {
+        return variables;
+    }
+
+    /**
+     * 是否不含变量（整棵树已在编译期折叠为常量）
+     */
+    public boolean isConstant() {
+        return evaluator instanceof Evaluator.Constant;
+    }
+
+    /**
+     * @param values 按 {@link #variables()} 顺序给出的变量取值
+     */
+    public double evaluate(double... values) {
+        if (values.length != variables.size()) {
+            throw new IllegalArgumentException("需要 " + variables.size() + " 个变量取值，实际 " + values.length + " 个");
+        }
+        return evaluator.eval(values);
+    }
+}
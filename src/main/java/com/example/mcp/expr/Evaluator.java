@@ -0,0 +1,30 @@
+package com.example.mcp.expr;
+
+/**
+ * 编译后的表达式节点，按变量槽位数组求值
+ */
+@FunctionalInterface
+interface Evaluator {
+
+    double eval(double[] variables);
+
+    /**
+     * 常量节点，编译期可直接折叠
+     */
+    record Constant(double value) implements Evaluator {
+        @Override
+        public double eval(double[] variables) {
+            return value;
+        }
+    }
+
+    /**
+     * 变量节点，读取固定槽位
+     */
+    record Slot(int index) implements Evaluator {
+        @Override
+        public double eval(double[] variables) {
+            return variables[index];
+        }
+    }
+}
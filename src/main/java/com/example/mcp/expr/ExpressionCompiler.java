@@ -0,0 +1,178 @@
+package com.example.mcp.expr;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+import static java.util.Map.entry;
+
+/**
+ * 把语法树编译为基本类型 double 的 lambda 树
+ * 变量按首次出现的顺序分配槽位，求值时只读数组，不装箱；全常量子树在编译期折叠.
+ */
+final class ExpressionCompiler {
+
+    private static final Map<String, Double> CONSTANTS = Map.of("pi", Math.PI, "e", Math.E);
+
+    private static final Map<String, DoubleUnaryOperator> UNARY = Map.ofEntries(
+            entry("abs", Math::abs),
+            entry("sqrt", Math::sqrt),
+            entry("cbrt", Math::cbrt),
+            entry("exp", Math::exp),
+            entry("ln", Math::log),
+            entry("log", Math::log),
+            entry("log10", Math::log10),
+            entry("log2", x -> Math.log(x) / Math.log(2)),
+            entry("sin", Math::sin),
+            entry("cos", Math::cos),
+            entry("tan", Math::tan),
+            entry("asin", Math::asin),
+            entry("acos", Math::acos),
+            entry("atan", Math::atan),
+            entry("sinh", Math::sinh),
+            entry("cosh", Math::cosh),
+            entry("tanh", Math::tanh),
+            entry("floor", Math::floor),
+            entry("ceil", Math::ceil),
+            entry("round", x -> Math.floor(x + 0.5)),
+            entry("sign", Math::signum));
+
+    private static final Map<String, DoubleBinaryOperator> BINARY = Map.of(
+            "pow", Math::pow,
+            "atan2", Math::atan2,
+            "hypot", Math::hypot);
+
+    private static final Map<String, DoubleBinaryOperator> VARIADIC = Map.of(
+            "min", Math::min,
+            "max", Math::max);
+
+    private final Map<String, Integer> slots = new LinkedHashMap<>();
+
+    private ExpressionCompiler() {
+    }
+
+    static CompiledExpression compile(String source) {
+        Node tree = ExpressionParser.parse(source);
+        ExpressionCompiler compiler = new ExpressionCompiler();
+        Evaluator evaluator = compiler.compile(tree);
+        return new CompiledExpression(source, List.copyOf(compiler.slots.keySet()), evaluator);
+    }
+
+    private Evaluator compile(Node node) {
+        return switch (node) {
+            case Node.Number number -> new Evaluator.Constant(number.value());
+            case Node.Variable variable -> variable(variable.name());
+            case Node.Negate negate -> negate(compile(negate.operand()));
+            case Node.Binary binary -> binary(binary.operator(), compile(binary.left()), compile(binary.right()));
+            case Node.Call call -> call(call);
+        };
+    }
+
+    private Evaluator variable(String name) {
+        Double constant = CONSTANTS.get(name);
+        if (constant != null) {
+            return new Evaluator.Constant(constant);
+        }
+        return new Evaluator.Slot(slots.computeIfAbsent(name, key -> slots.size()));
+    }
+
+    private static Evaluator negate(Evaluator operand) {
+        if (operand instanceof Evaluator.Constant constant) {
+            return new Evaluator.Constant(-constant.value());
+        }
+        return variables -> -operand.eval(variables);
+    }
+
+    private static Evaluator binary(char operator, Evaluator left, Evaluator right) {
+        if (left instanceof Evaluator.Constant a && right instanceof Evaluator.Constant b) {
+            return new Evaluator.Constant(apply(operator, a.value(), b.value()));
+        }
+        if (right instanceof Evaluator.Constant constant) {
+            double c = constant.value();
+            return switch (operator) {
+                case '+' -> variables -> left.eval(variables) + c;
+                case '-' -> variables -> left.eval(variables) - c;
+                case '*' -> variables -> left.eval(variables) * c;
+                case '/' -> variables -> left.eval(variables) / c;
+                case '%' -> variables -> left.eval(variables) % c;
+                default -> c == 2
+                        ? variables -> {
+                            double x = left.eval(variables);
+                            return x * x;
+                        }
+                        : variables -> Math.pow(left.eval(variables), c);
+            };
+        }
+        return switch (operator) {
+            case '+' -> variables -> left.eval(variables) + right.eval(variables);
+            case '-' -> variables -> left.eval(variables) - right.eval(variables);
+            case '*' -> variables -> left.eval(variables) * right.eval(variables);
+            case '/' -> variables -> left.eval(variables) / right.eval(variables);
+            case '%' -> variables -> left.eval(variables) % right.eval(variables);
+            default -> variables -> Math.pow(left.eval(variables), right.eval(variables));
+        };
+    }
+
+    private static double apply(char operator, double a, double b) {
+        return switch (operator) {
+            case '+' -> a + b;
+            case '-' -> a - b;
+            case '*' -> a * b;
+            case '/' -> a / b;
+            case '%' -> a % b;
+            default -> Math.pow(a, b);
+        };
+    }
+
+    private Evaluator call(Node.Call call) {
+        String name = call.function();
+        List<Node> arguments = call.arguments();
+        DoubleUnaryOperator unary = UNARY.get(name);
+        if (unary != null) {
+            checkArity(name, arguments.size(), 1);
+            Evaluator operand = compile(arguments.get(0));
+            if (operand instanceof Evaluator.Constant constant) {
+                return new Evaluator.Constant(unary.applyAsDouble(constant.value()));
+            }
+            return variables -> unary.applyAsDouble(operand.eval(variables));
+        }
+        DoubleBinaryOperator binary = BINARY.get(name);
+        if (binary != null) {
+            checkArity(name, arguments.size(), 2);
+            Evaluator left = compile(arguments.get(0));
+            Evaluator right = compile(arguments.get(1));
+            if (left instanceof Evaluator.Constant a && right instanceof Evaluator.Constant b) {
+                return new Evaluator.Constant(binary.applyAsDouble(a.value(), b.value()));
+            }
+            return variables -> binary.applyAsDouble(left.eval(variables), right.eval(variables));
+        }
+        DoubleBinaryOperator fold = VARIADIC.get(name);
+        if (fold != null) {
+            if (arguments.isEmpty()) {
+                throw new IllegalArgumentException("函数 " + name + " 至少需要 1 个参数");
+            }
+            Evaluator result = compile(arguments.get(0));
+            for (int i = 1; i < arguments.size(); i++) {
+                Evaluator left = result;
+                Evaluator right = compile(arguments.get(i));
+                result = left instanceof Evaluator.Constant a && right instanceof Evaluator.Constant b
+                        ? new Evaluator.Constant(fold.applyAsDouble(a.value(), b.value()))
+                        : variables -> fold.applyAsDouble(left.eval(variables), right.eval(variables));
+            }
+            return result;
+        }
+        TreeSet<String> known = new TreeSet<>(UNARY.keySet());
+        known.addAll(BINARY.keySet());
+        known.addAll(VARIADIC.keySet());
+        throw new IllegalArgumentException("未知函数 " + name + "，可用函数: " + String.join(", ", known));
+    }
+
+    private static void checkArity(String name, int actual, int expected) {
+        if (actual != expected) {
+            throw new IllegalArgumentException("函数 " + name + " 需要 " + expected + " 个参数，实际 " + actual + " 个");
+        }
+    }
+}
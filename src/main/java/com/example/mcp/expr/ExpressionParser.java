@@ -0,0 +1,194 @@
+package com.example.mcp.expr;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 递归下降解析算术表达式
+ * <pre>
+ * expr    := term (('+' | '-') term)*
+ * term    := unary (('*' | '/' | '%') unary)*
+ * unary   := ('-' | '+') unary | power
+ * power   := primary ('^' unary)?          右结合，-2^2 = -(2^2)
+ * primary := number | name | name '(' expr (',' expr)* ')' | '(' expr ')'
+ * </pre>
+ * 解析失败抛出 IllegalArgumentException，消息中带出错位置（从 1 开始的字符序号）.
+ */
+final class ExpressionParser {
+
+    /** 表达式最大长度和最大嵌套深度，避免超长输入占满解析栈 */
+    static final int MAX_LENGTH = 10_000;
+    private static final int MAX_DEPTH = 200;
+
+    private final String source;
+    private int position;
+    private int depth;
+
+    private ExpressionParser(String source) {
+        this.source = source;
+    }
+
+    static Node parse(String source) {
+        if (source == null || source.isBlank()) {
+            throw new IllegalArgumentException("表达式不能为空");
+        }
+        if (source.length() > MAX_LENGTH) {
+            throw new IllegalArgumentException("表达式过长，最多 " + MAX_LENGTH + " 个字符");
+        }
+        ExpressionParser parser = new ExpressionParser(source);
+        Node node = parser.expression();
+        parser.skipWhitespace();
+        if (parser.position < source.length()) {
+            throw parser.error("多余的字符 '" + source.charAt(parser.position) + "'");
+        }
+        return node;
+    }
+
+    private Node expression() {
+        if (++depth > MAX_DEPTH) {
+            throw error("嵌套层数超过 " + MAX_DEPTH);
+        }
+        Node node = term();
+        while (true) {
+            if (accept('+')) {
+                node = new Node.Binary('+', node, term());
+            } else if (accept('-')) {
+                node = new Node.Binary('-', node, term());
+            } else {
+                depth--;
+                return node;
+            }
+        }
+    }
+
+    private Node term() {
+        Node node = unary();
+        while (true) {
+            if (accept('*')) {
+                node = new Node.Binary('*', node, unary());
+            } else if (accept('/')) {
+                node = new Node.Binary('/', node, unary());
+            } else if (accept('%')) {
+                node = new Node.Binary('%', node, unary());
+            } else {
+                return node;
+            }
+        }
+    }
+
+    private Node unary() {
+        if (++depth > MAX_DEPTH) {
+            throw error("嵌套层数超过 " + MAX_DEPTH);
+        }
+        Node node;
+        if (accept('-')) {
+            node = new Node.Negate(unary());
+        } else if (accept('+')) {
+            node = unary();
+        } else {
+            node = power();
+        }
+        depth--;
+        return node;
+    }
+
+    private Node power() {
+        Node base = primary();
+        return accept('^') ? new Node.Binary('^', base, unary()) : base;
+    }
+
+    private Node primary() {
+        skipWhitespace();
+        if (position >= source.length()) {
+            throw error("表达式不完整");
+        }
+        char c = source.charAt(position);
+        if (accept('(')) {
+            Node node = expression();
+            expect(')');
+            return node;
+        }
+        if (isDigit(c) || c == '.') {
+            return number();
+        }
+        if (Character.isLetter(c) || c == '_') {
+            String name = name();
+            if (!accept('(')) {
+                return new Node.Variable(name);
+            }
+            List<Node> arguments = new ArrayList<>();
+            if (!accept(')')) {
+                do {
+                    arguments.add(expression());
+                } while (accept(','));
+                expect(')');
+            }
+            return new Node.Call(name, arguments);
+        }
+        throw error("无法识别的字符 '" + c + "'");
+    }
+
+    private Node number() {
+        int start = position;
+        while (position < source.length() && (isDigit(source.charAt(position)) || source.charAt(position) == '.')) {
+            position++;
+        }
+        if (position < source.length() && (source.charAt(position) == 'e' || source.charAt(position) == 'E')) {
+            int exponent = position + 1;
+            if (exponent < source.length() && (source.charAt(exponent) == '+' || source.charAt(exponent) == '-')) {
+                exponent++;
+            }
+            if (exponent < source.length() && isDigit(source.charAt(exponent))) {
+                position = exponent;
+                while (position < source.length() && isDigit(source.charAt(position))) {
+                    position++;
+                }
+            }
+        }
+        String text = source.substring(start, position);
+        try {
+            return new Node.Number(Double.parseDouble(text));
+        } catch (NumberFormatException e) {
+            position = start;
+            throw error("无效的数字 '" + text + "'");
+        }
+    }
+
+    private String name() {
+        int start = position;
+        while (position < source.length()
+                && (Character.isLetterOrDigit(source.charAt(position)) || source.charAt(position) == '_')) {
+            position++;
+        }
+        return source.substring(start, position);
+    }
+
+    private boolean accept(char expected) {
+        skipWhitespace();
+        if (position < source.length() && source.charAt(position) == expected) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char expected) {
+        if (!accept(expected)) {
+            throw error("缺少 '" + expected + "'");
+        }
+    }
+
+    private void skipWhitespace() {
+        while (position < source.length() && Character.isWhitespace(source.charAt(position))) {
+            position++;
+        }
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("第 " + (position + 1) + " 个字符处" + message);
+    }
+}
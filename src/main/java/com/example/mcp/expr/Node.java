@@ -0,0 +1,27 @@
+package com.example.mcp.expr;
+
+import java.util.List;
+
+/**
+ * 表达式语法树
+ */
+sealed interface Node {
+
+    record Number(double value) implements Node {
+    }
+
+    record Variable(String name) implements Node {
+    }
+
+    record Negate(Node operand) implements Node {
+    }
+
+    /**
+     * @param operator + - * / % ^ 之一
+     */
+    record Binary(char operator, Node left, Node right) implements Node {
+    }
+
+    record Call(String function, List<Node> arguments) implements Node {
+    }
+}
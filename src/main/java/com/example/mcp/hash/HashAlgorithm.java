@@ -0,0 +1,68 @@
+package com.example.mcp.hash;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 支持的哈希算法
+ */
+public enum HashAlgorithm {
+
+    MD5("MD5"),
+    SHA1("SHA-1"),
+    SHA256("SHA-256"),
+    SHA512("SHA-512"),
+    CRC32C("CRC32C", () -> Hasher.of(new java.util.zip.CRC32C())),
+    XXH64("XXH64", XxHash64::new);
+
+    private final String displayName;
+    private final Supplier<Hasher> factory;
+
+    HashAlgorithm(String jdkName) {
+        this(jdkName, () -> {
+            try {
+                return Hasher.of(MessageDigest.getInstance(jdkName));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(jdkName + " 算法不可用", e);
+            }
+        });
+    }
+
+    HashAlgorithm(String displayName, Supplier<Hasher> factory) {
+        this.displayName = displayName;
+        this.factory = factory;
+    }
+
+    public String displayName() {
+        return displayName;
+    }
+
+    public Hasher newHasher() {
+        return factory.get();
+    }
+
+    /**
+     * 按名称解析，忽略大小写和连字符/下划线，xxhash 视为 XXH64；为空时默认 SHA-256
+     * @throws IllegalArgumentException 不支持的算法
+     */
+    public static HashAlgorithm parse(String name) {
+        if (name == null || name.isBlank()) {
+            return SHA256;
+        }
+        String normalized = name.replace("-", "").replace("_", "").trim().toUpperCase(Locale.ROOT);
+        if ("XXHASH".equals(normalized) || "XXHASH64".equals(normalized)) {
+            return XXH64;
+        }
+        for (HashAlgorithm algorithm : values()) {
+            if (algorithm.name().equals(normalized)) {
+                return algorithm;
+            }
+        }
+        throw new IllegalArgumentException("不支持的哈希算法: " + name + "，可选: " + Arrays.stream(values())
+                .map(HashAlgorithm::displayName).collect(Collectors.joining(", ")));
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.mcp.hash;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.util.zip.Checksum;
+
+/**
+ * 增量哈希计算
+ * 数据按块通过 {@link #update(ByteBuffer)} 输入，内存占用与数据总长度无关.
+ */
+public interface Hasher {
+
+    /**
+     * 输入 buffer 中剩余的全部字节，返回时 position 等于 limit
+     */
+    void update(ByteBuffer buffer);
+
+    /**
+     * 结束计算并返回哈希值，之后不能再输入
+     */
+    byte[] digest();
+
+    static Hasher of(MessageDigest digest) {
+        return new Hasher() {
+            @Override
+            public void update(ByteBuffer buffer) {
+                digest.update(buffer);
+            }
+
+            @Override
+            public byte[] digest() {
+                return digest.digest();
+            }
+        };
+    }
+
+    /**
+     * 包装 32 位校验和，结果按大端序输出 4 个字节
+     */
+    static Hasher of(Checksum checksum) {
+        return new Hasher() {
+            @Override
+            public void update(ByteBuffer buffer) {
+                checksum.update(buffer);
+            }
+
+            @Override
+            public byte[] digest() {
+                int value = (int) checksum.getValue();
+                return new byte[] {(byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value};
+            }
+        };
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.mcp.hash;
+
+/**
+ * 查表实现的小写十六进制编码
+ */
+public final class Hex {
+
+    private static final char[] DIGITS = "0123456789abcdef".toCharArray();
+
+    private Hex() {
+    }
+
+    public static String encode(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0, j = 0; i < bytes.length; i++) {
+            int b = bytes[i] & 0xFF;
+            chars[j++] = DIGITS[b >>> 4];
+            chars[j++] = DIGITS[b & 0x0F];
+        }
+        return new String(chars);
+    }
+}
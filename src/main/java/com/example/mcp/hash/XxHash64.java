@@ -0,0 +1,125 @@
+package com.example.mcp.hash;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * XXH64 非加密哈希的流式实现，种子为 0
+ * 每 32 字节一组更新四个累加器，不足一组的尾部暂存在内部缓冲区；结果按大端序输出（与 xxhsum 的十六进制一致）.
+ */
+public final class XxHash64 implements Hasher {
+
+    private static final long P1 = 0x9E3779B185EBCA87L;
+    private static final long P2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long P3 = 0x165667B19E3779F9L;
+    private static final long P4 = 0x85EBCA77C2B2AE63L;
+    private static final long P5 = 0x27D4EB2F165667C5L;
+    private static final int STRIPE = 32;
+
+    private final long seed;
+    private final ByteBuffer pending = ByteBuffer.allocate(STRIPE).order(ByteOrder.LITTLE_ENDIAN);
+    private long v1;
+    private long v2;
+    private long v3;
+    private long v4;
+    private long totalLength;
+
+    public XxHash64() {
+        this(0);
+    }
+
+    public XxHash64(long seed) {
+        this.seed = seed;
+        this.v1 = seed + P1 + P2;
+        this.v2 = seed + P2;
+        this.v3 = seed;
+        this.v4 = seed - P1;
+    }
+
+    @Override
+    public void update(ByteBuffer buffer) {
+        ByteOrder order = buffer.order();
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        totalLength += buffer.remaining();
+
+        if (pending.position() > 0) {
+            int n = Math.min(pending.remaining(), buffer.remaining());
+            pending.put(pending.position(), buffer, buffer.position(), n);
+            pending.position(pending.position() + n);
+            buffer.position(buffer.position() + n);
+            if (pending.hasRemaining()) {
+                buffer.order(order);
+                return;
+            }
+            stripe(pending, 0);
+            pending.clear();
+        }
+
+        int position = buffer.position();
+        int limit = buffer.limit();
+        while (limit - position >= STRIPE) {
+            stripe(buffer, position);
+            position += STRIPE;
+        }
+        pending.put(0, buffer, position, limit - position);
+        pending.position(limit - position);
+        buffer.position(limit);
+        buffer.order(order);
+    }
+
+    private void stripe(ByteBuffer buffer, int offset) {
+        v1 = round(v1, buffer.getLong(offset));
+        v2 = round(v2, buffer.getLong(offset + 8));
+        v3 = round(v3, buffer.getLong(offset + 16));
+        v4 = round(v4, buffer.getLong(offset + 24));
+    }
+
+    @Override
+    public byte[] digest() {
+        long h;
+        if (totalLength >= STRIPE) {
+            h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            h = mergeRound(h, v1);
+            h = mergeRound(h, v2);
+            h = mergeRound(h, v3);
+            h = mergeRound(h, v4);
+        } else {
+            h = seed + P5;
+        }
+        h += totalLength;
+
+        int length = pending.position();
+        int i = 0;
+        for (; i + 8 <= length; i += 8) {
+            h ^= round(0, pending.getLong(i));
+            h = Long.rotateLeft(h, 27) * P1 + P4;
+        }
+        if (i + 4 <= length) {
+            h ^= (pending.getInt(i) & 0xFFFFFFFFL) * P1;
+            h = Long.rotateLeft(h, 23) * P2 + P3;
+            i += 4;
+        }
+        for (; i < length; i++) {
+            h ^= (pending.get(i) & 0xFFL) * P5;
+            h = Long.rotateLeft(h, 11) * P1;
+        }
+
+        h ^= h >>> 33;
+        h *= P2;
+        h ^= h >>> 29;
+        h *= P3;
+        h ^= h >>> 32;
+        return ByteBuffer.allocate(Long.BYTES).putLong(h).array();
+    }
+
+    private static long round(long acc, long input) {
+        acc += input * P2;
+        acc = Long.rotateLeft(acc, 31);
+        return acc * P1;
+    }
+
+    private static long mergeRound(long acc, long value) {
+        acc ^= round(0, value);
+        return acc * P1 + P4;
+    }
+}
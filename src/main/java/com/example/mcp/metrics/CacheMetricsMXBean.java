@@ -0,0 +1,16 @@
+package com.example.mcp.metrics;
+
+/**
+ * 单个工具的结果缓存统计，以 JMX MXBean 形式暴露
+ * ObjectName 形如 com.example.mcp:type=ResultCache,name=crypto_sha256hash
+ */
+public interface CacheMetricsMXBean {
+
+    long getHitCount();
+
+    long getMissCount();
+
+    double getHitRate();
+
+    long getEvictionCount();
+}
@@ -0,0 +1,121 @@
+package com.example.mcp.metrics;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 调用计数、错误数、并发数和延迟直方图
+ * 记录路径只有 LongAdder 累加和 ConcurrentHistogram 的无等待写入，不分配对象.
+ */
+public final class LatencyMetrics implements LatencyMetricsMXBean {
+
+    /** 直方图上限 10 分钟（微秒），超出的值按上限记录 */
+    private static final long MAX_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final String name;
+    private final long createdAtNanos = System.nanoTime();
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder inFlight = new LongAdder();
+    private final ConcurrentHistogram histogram = new ConcurrentHistogram(MAX_TRACKABLE_MICROS, 2);
+
+    LatencyMetrics(String name) {
+        this.name = name;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * 开始一次调用
+     * @return 开始时间，传给 {@link #stop(long, boolean)}
+     */
+    public long start() {
+        inFlight.increment();
+        return System.nanoTime();
+    }
+
+    public void stop(long startNanos, boolean success) {
+        long micros = (System.nanoTime() - startNanos) / 1000;
+        inFlight.decrement();
+        count.increment();
+        if (!success) {
+            errors.increment();
+        }
+        histogram.recordValue(Math.min(Math.max(micros, 0), MAX_TRACKABLE_MICROS));
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    @Override
+    public double getErrorRate() {
+        long total = count.sum();
+        return total == 0 ? 0 : (double) errors.sum() / total;
+    }
+
+    @Override
+    public long getInFlight() {
+        return inFlight.sum();
+    }
+
+    @Override
+    public double getThroughputPerSecond() {
+        double seconds = (System.nanoTime() - createdAtNanos) / 1e9;
+        return seconds <= 0 ? 0 : count.sum() / seconds;
+    }
+
+    @Override
+    public double getMeanMillis() {
+        return histogram.getMean() / 1000;
+    }
+
+    @Override
+    public double getP50Millis() {
+        return percentileMillis(50);
+    }
+
+    @Override
+    public double getP99Millis() {
+        return percentileMillis(99);
+    }
+
+    @Override
+    public double getP999Millis() {
+        return percentileMillis(99.9);
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return histogram.getMaxValue() / 1000.0;
+    }
+
+    private double percentileMillis(double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    /**
+     * 生成一致的快照用于展示，快照本身会分配内存，只在查询时调用
+     */
+    Snapshot snapshot() {
+        Histogram copy = histogram.copy();
+        return new Snapshot(name, getCount(), getErrorCount(), getErrorRate(), getInFlight(), getThroughputPerSecond(),
+                copy.getMean() / 1000, copy.getValueAtPercentile(50) / 1000.0,
+                copy.getValueAtPercentile(99) / 1000.0, copy.getValueAtPercentile(99.9) / 1000.0,
+                copy.getMaxValue() / 1000.0);
+    }
+
+    record Snapshot(String name, long count, long errors, double errorRate, long inFlight, double throughput,
+                    double meanMillis, double p50Millis, double p99Millis, double p999Millis, double maxMillis) {}
+}
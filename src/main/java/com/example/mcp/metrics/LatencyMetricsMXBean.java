@@ -0,0 +1,28 @@
+package com.example.mcp.metrics;
+
+/**
+ * 单个工具或 JDBC 操作的调用统计，以 JMX MXBean 形式暴露
+ * ObjectName 形如 com.example.mcp:type=Tool,name=calculator_add
+ */
+public interface LatencyMetricsMXBean {
+
+    long getCount();
+
+    long getErrorCount();
+
+    double getErrorRate();
+
+    long getInFlight();
+
+    double getThroughputPerSecond();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP99Millis();
+
+    double getP999Millis();
+
+    double getMaxMillis();
+}
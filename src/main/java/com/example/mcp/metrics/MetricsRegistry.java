@@ -0,0 +1,149 @@
+package com.example.mcp.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 指标注册表
+ * 按类别（Tool、Jdbc）和名称维护 {@link LatencyMetrics}，按工具名维护结果缓存的 {@link CacheMetrics}，
+ * 首次使用时创建并注册为 JMX MXBean.
+ */
+@Component
+public class MetricsRegistry {
+
+    public static final String TOOL = "Tool";
+    public static final String JDBC = "Jdbc";
+    public static final String RESULT_CACHE = "ResultCache";
+
+    private static final Logger log = LoggerFactory.getLogger(MetricsRegistry.class);
+    private static final String DOMAIN = "com.example.mcp";
+
+    private final Map<String, LatencyMetrics> metrics = new ConcurrentHashMap<>();
+    private final Map<String, CacheMetrics> caches = new ConcurrentHashMap<>();
+    private final MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+    private volatile long firstResponseMillis = -1;
+
+    /**
+     * 获取指标，调用方可持有返回值以避免每次查表
+     */
+    public LatencyMetrics metrics(String category, String name) {
+        String key = category + ":" + name;
+        LatencyMetrics existing = metrics.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        return metrics.computeIfAbsent(key, k -> {
+            LatencyMetrics created = new LatencyMetrics(name);
+            register(category, name, created);
+            return created;
+        });
+    }
+
+    /**
+     * 获取工具的结果缓存统计
+     */
+    public CacheMetrics cacheMetrics(String toolName) {
+        CacheMetrics existing = caches.get(toolName);
+        if (existing != null) {
+            return existing;
+        }
+        return caches.computeIfAbsent(toolName, k -> {
+            CacheMetrics created = new CacheMetrics(toolName);
+            register(RESULT_CACHE, toolName, created);
+            return created;
+        });
+    }
+
+    /**
+     * 记录 JVM 启动到写出首个响应的耗时
+     */
+    public void recordFirstResponse(long uptimeMillis) {
+        firstResponseMillis = uptimeMillis;
+    }
+
+    /**
+     * 计时执行一段 JDBC 操作，抛出异常时记为错误
+     */
+    public <T> T timeJdbc(String operation, Supplier<T> action) {
+        LatencyMetrics m = metrics(JDBC, operation);
+        long start = m.start();
+        boolean success = false;
+        try {
+            T result = action.get();
+            success = true;
+            return result;
+        } finally {
+            m.stop(start, success);
+        }
+    }
+
+    /**
+     * 计时执行一段无返回值的 JDBC 操作，抛出异常时记为错误
+     */
+    public void runJdbc(String operation, Runnable action) {
+        LatencyMetrics m = metrics(JDBC, operation);
+        long start = m.start();
+        boolean success = false;
+        try {
+            action.run();
+            success = true;
+        } finally {
+            m.stop(start, success);
+        }
+    }
+
+    /**
+     * 以文本形式输出有调用记录的指标，按类别和名称排序
+     */
+    public String snapshot() {
+        Map<String, LatencyMetrics> sorted = new TreeMap<>(metrics);
+        List<String> lines = new ArrayList<>(sorted.size());
+        for (Map.Entry<String, LatencyMetrics> entry : sorted.entrySet()) {
+            if (entry.getValue().getCount() == 0 && entry.getValue().getInFlight() == 0) {
+                continue;
+            }
+            String category = entry.getKey().substring(0, entry.getKey().indexOf(':'));
+            LatencyMetrics.Snapshot s = entry.getValue().snapshot();
+            lines.add(String.format("- [%s] %s: count=%d, errors=%d (%.2f%%), inFlight=%d, throughput=%.2f, " +
+                            "mean=%.3f, p50=%.3f, p99=%.3f, p999=%.3f, max=%.3f",
+                    category, s.name(), s.count(), s.errors(), s.errorRate() * 100, s.inFlight(), s.throughput(),
+                    s.meanMillis(), s.p50Millis(), s.p99Millis(), s.p999Millis(), s.maxMillis()));
+        }
+        for (CacheMetrics c : new TreeMap<>(caches).values()) {
+            if (c.getHitCount() + c.getMissCount() == 0) {
+                continue;
+            }
+            lines.add(String.format("- [%s] %s: hits=%d, misses=%d, hitRate=%.2f%%, evictions=%d",
+                    RESULT_CACHE, c.name(), c.getHitCount(), c.getMissCount(), c.getHitRate() * 100,
+                    c.getEvictionCount()));
+        }
+        String startup = firstResponseMillis < 0 ? "" : "JVM 启动到首个响应: " + firstResponseMillis + " ms\n";
+        if (lines.isEmpty()) {
+            return startup + "暂无指标数据";
+        }
+        return startup + "指标快照（延迟单位: ms，吞吐单位: 次/秒）:\n" + String.join("\n", lines);
+    }
+
+    private void register(String category, String name, Object m) {
+        try {
+            ObjectName objectName = new ObjectName(DOMAIN + ":type=" + category + ",name=" + ObjectName.quote(name));
+            if (!mbeanServer.isRegistered(objectName)) {
+                mbeanServer.registerMBean(m, objectName);
+            }
+        } catch (JMException e) {
+            log.warn("注册指标 MBean 失败: {}:{}", category, name, e);
+        }
+    }
+}
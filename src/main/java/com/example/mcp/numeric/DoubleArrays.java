@@ -0,0 +1,368 @@
+package com.example.mcp.numeric;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * double 数组的批量运算
+ * 全部基于基本类型循环，不装箱；归约用 4 个独立累加器展开以减少浮点加法的依赖链，
+ * 逐元素运算写成简单的下标循环，便于 JIT 自动向量化.
+ * 长度达到 {@link #PARALLEL_THRESHOLD} 时按固定大小分块，在公共 ForkJoinPool 上并行计算，
+ * 各块的部分结果按块顺序合并，因此同一输入的结果与线程调度无关.
+ */
+public final class DoubleArrays {
+
+    /** 达到该长度才并行，较短的数组拆分和调度的开销大于收益 */
+    public static final int PARALLEL_THRESHOLD = 1 << 16;
+    /** 并行时每个任务处理的元素数 */
+    private static final int CHUNK = 1 << 14;
+
+    private DoubleArrays() {
+    }
+
+    public static double sum(double[] values) {
+        return reduce(values.length, (from, to) -> sum(values, from, to), Double::sum);
+    }
+
+    public static double min(double[] values) {
+        requireNonEmpty(values);
+        return reduce(values.length, (from, to) -> min(values, from, to), Math::min);
+    }
+
+    public static double max(double[] values) {
+        requireNonEmpty(values);
+        return reduce(values.length, (from, to) -> max(values, from, to), Math::max);
+    }
+
+    /**
+     * 总体方差，两遍计算：先求平均值，再累加与平均值之差的平方
+     */
+    public static double variance(double[] values, double mean) {
+        requireNonEmpty(values);
+        return reduce(values.length, (from, to) -> squaredDeviations(values, mean, from, to), Double::sum) / values.length;
+    }
+
+    public static double dot(double[] a, double[] b) {
+        requireSameLength(a, b);
+        return reduce(a.length, (from, to) -> dot(a, b, from, to), Double::sum);
+    }
+
+    /**
+     * 线性插值百分位数（与 numpy 默认的 linear 方法一致）
+     * @param percentiles 0-100 之间的百分位
+     */
+    public static double[] percentiles(double[] values, double[] percentiles) {
+        requireNonEmpty(values);
+        double[] sorted = values.clone();
+        if (sorted.length >= PARALLEL_THRESHOLD) {
+            Arrays.parallelSort(sorted);
+        } else {
+            Arrays.sort(sorted);
+        }
+        double[] result = new double[percentiles.length];
+        for (int i = 0; i < percentiles.length; i++) {
+            double p = percentiles[i];
+            if (!(p >= 0 && p <= 100)) {
+                throw new IllegalArgumentException("百分位必须在 0-100 之间: " + p);
+            }
+            double rank = p / 100 * (sorted.length - 1);
+            int lower = (int) rank;
+            int upper = Math.min(lower + 1, sorted.length - 1);
+            result[i] = sorted[lower] + (sorted[upper] - sorted[lower]) * (rank - lower);
+        }
+        return result;
+    }
+
+    /**
+     * 逐元素计算 a[i] op b[i]
+     */
+    public static double[] elementwise(double[] a, Operation operation, double[] b) {
+        requireSameLength(a, b);
+        double[] out = new double[a.length];
+        forEachChunk(a.length, (from, to) -> operation.apply(a, b, out, from, to));
+        return out;
+    }
+
+    /**
+     * 逐元素计算 a[i] op scalar
+     */
+    public static double[] elementwise(double[] a, Operation operation, double scalar) {
+        double[] out = new double[a.length];
+        forEachChunk(a.length, (from, to) -> operation.apply(a, scalar, out, from, to));
+        return out;
+    }
+
+    /**
+     * 解码 base64 编码的小端序 double 数组（每个元素 8 字节）
+     */
+    public static double[] fromBase64(String text) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getMimeDecoder().decode(text);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("base64 格式无效: " + e.getMessage());
+        }
+        if (bytes.length % Double.BYTES != 0) {
+            throw new IllegalArgumentException("base64 解码后的字节数 " + bytes.length + " 不是 8 的倍数");
+        }
+        double[] values = new double[bytes.length / Double.BYTES];
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(values);
+        return values;
+    }
+
+    /**
+     * 编码为 base64 的小端序 double 数组
+     */
+    public static String toBase64(double[] values) {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asDoubleBuffer().put(values);
+        return Base64.getEncoder().encodeToString(buffer.array());
+    }
+
+    private static double sum(double[] a, int from, int to) {
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = from;
+        for (; i + 3 < to; i += 4) {
+            s0 += a[i];
+            s1 += a[i + 1];
+            s2 += a[i + 2];
+            s3 += a[i + 3];
+        }
+        for (; i < to; i++) {
+            s0 += a[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    private static double dot(double[] a, double[] b, int from, int to) {
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = from;
+        for (; i + 3 < to; i += 4) {
+            s0 += a[i] * b[i];
+            s1 += a[i + 1] * b[i + 1];
+            s2 += a[i + 2] * b[i + 2];
+            s3 += a[i + 3] * b[i + 3];
+        }
+        for (; i < to; i++) {
+            s0 += a[i] * b[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    private static double squaredDeviations(double[] a, double mean, int from, int to) {
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = from;
+        for (; i + 3 < to; i += 4) {
+            double d0 = a[i] - mean;
+            double d1 = a[i + 1] - mean;
+            double d2 = a[i + 2] - mean;
+            double d3 = a[i + 3] - mean;
+            s0 += d0 * d0;
+            s1 += d1 * d1;
+            s2 += d2 * d2;
+            s3 += d3 * d3;
+        }
+        for (; i < to; i++) {
+            double d = a[i] - mean;
+            s0 += d * d;
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    private static double min(double[] a, int from, int to) {
+        double result = a[from];
+        for (int i = from + 1; i < to; i++) {
+            result = Math.min(result, a[i]);
+        }
+        return result;
+    }
+
+    private static double max(double[] a, int from, int to) {
+        double result = a[from];
+        for (int i = from + 1; i < to; i++) {
+            result = Math.max(result, a[i]);
+        }
+        return result;
+    }
+
+    /**
+     * 短数组直接计算整个区间；长数组按块并行计算部分结果，再按块顺序合并
+     */
+    private static double reduce(int length, RangeReducer reducer, DoubleBinaryOperator combiner) {
+        if (length < PARALLEL_THRESHOLD) {
+            return reducer.apply(0, length);
+        }
+        double[] partials = new double[(length + CHUNK - 1) / CHUNK];
+        ForkJoinPool.commonPool().invoke(new ChunkTask(length, 0, partials.length,
+                (from, to) -> partials[from / CHUNK] = reducer.apply(from, to)));
+        double result = partials[0];
+        for (int i = 1; i < partials.length; i++) {
+            result = combiner.applyAsDouble(result, partials[i]);
+        }
+        return result;
+    }
+
+    private static void forEachChunk(int length, RangeAction action) {
+        if (length < PARALLEL_THRESHOLD) {
+            action.apply(0, length);
+            return;
+        }
+        ForkJoinPool.commonPool().invoke(new ChunkTask(length, 0, (length + CHUNK - 1) / CHUNK, action));
+    }
+
+    private static void requireNonEmpty(double[] values) {
+        if (values.length == 0) {
+            throw new IllegalArgumentException("数组不能为空");
+        }
+    }
+
+    private static void requireSameLength(double[] a, double[] b) {
+        if (a.length != b.length) {
+            throw new IllegalArgumentException("两个数组长度不一致: " + a.length + " 与 " + b.length);
+        }
+    }
+
+    /**
+     * 逐元素运算，每种运算一个独立的循环，循环体内没有分支和虚调用
+     */
+    public enum Operation {
+        ADD {
+            @Override
+            void apply(double[] a, double[] b, double[] out, int from, int to) {
+                for (int i = from; i < to; i++) {
+                    out[i] = a[i] + b[i];
+                }
+            }
+
+            @Override
+            void apply(double[] a, double b, double[] out, int from, int to) {
+                for (int i = from; i < to; i++) {
+                    out[i] = a[i] + b;
+                }
+            }
+        },
+        SUBTRACT {
+            @Override
+            void apply(double[] a, double[] b, double[] out, int from, int to) {
+                for (int i = from; i < to; i++) {
+                    out[i] = a[i] - b[i];
+                }
+            }
+
+            @Override
+            void apply(double[] a, double b, double[] out, int from, int to) {
+                for (int i = from; i < to; i++) {
+                    out[i] = a[i] - b;
+                }
+            }
+        },
+        MULTIPLY {
+            @Override
+            void apply(double[] a, double[] b, double[] out, int from, int to) {
+                for (int i = from; i < to; i++) {
+                    out[i] = a[i] * b[i];
+                }
+            }
+
+            @Override
+            void apply(double[] a, double b, double[] out, int from, int to) {
+                for (int i = from; i < to; i++) {
+                    out[i] = a[i] * b;
+                }
+            }
+        },
+        DIVIDE {
+            @Override
+            void apply(double[] a, double[] b, double[] out, int from, int to) {
+                for (int i = from; i < to; i++) {
+                    out[i] = a[i] / b[i];
+                }
+            }
+
+            @Override
+            void apply(double[] a, double b, double[] out, int from, int to) {
+                for (int i = from; i < to; i++) {
+                    out[i] = a[i] / b;
+                }
+            }
+        },
+        MIN {
+            @Override
+            void apply(double[] a, double[] b, double[] out, int from, int to) {
+                for (int i = from; i < to; i++) {
+                    out[i] = Math.min(a[i], b[i]);
+                }
+            }
+
+            @Override
+            void apply(double[] a, double b, double[] out, int from, int to) {
+                for (int i = from; i < to; i++) {
+                    out[i] = Math.min(a[i], b);
+                }
+            }
+        },
+        MAX {
+            @Override
+            void apply(double[] a, double[] b, double[] out, int from, int to) {
+                for (int i = from; i < to; i++) {
+                    out[i] = Math.max(a[i], b[i]);
+                }
+            }
+
+            @Override
+            void apply(double[] a, double b, double[] out, int from, int to) {
+                for (int i = from; i < to; i++) {
+                    out[i] = Math.max(a[i], b);
+                }
+            }
+        };
+
+        abstract void apply(double[] a, double[] b, double[] out, int from, int to);
+
+        abstract void apply(double[] a, double b, double[] out, int from, int to);
+    }
+
+    @FunctionalInterface
+    private interface RangeReducer {
+        double apply(int from, int to);
+    }
+
+    @FunctionalInterface
+    private interface RangeAction {
+        void apply(int from, int to);
+    }
+
+    /**
+     * 对块序号区间 [firstChunk, lastChunk) 二分拆分，直到只剩一块时执行
+     */
+    private static final class ChunkTask extends RecursiveAction {
+
+        private final int length;
+        private final int firstChunk;
+        private final int lastChunk;
+        private final RangeAction action;
+
+        ChunkTask(int length, int firstChunk, int lastChunk, RangeAction action) {
+            this.length = length;
+            this.firstChunk = firstChunk;
+            this.lastChunk = lastChunk;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (lastChunk - firstChunk == 1) {
+                action.apply(firstChunk * CHUNK, Math.min(length, (firstChunk + 1) * CHUNK));
+                return;
+            }
+            int middle = (firstChunk + lastChunk) >>> 1;
+            invokeAll(new ChunkTask(length, firstChunk, middle, action),
+                    new ChunkTask(length, middle, lastChunk, action));
+        }
+    }
+}
@@ -0,0 +1,480 @@
+package com.example.mcp.persistence;
+
+import com.example.mcp.metrics.MetricsRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 附件写后缓冲（write-behind）
+ * <p>
+ * 开启后 saveSystemAttachment 不再同步写库：记录先追加到本地溢出日志，再放入有界内存队列，
+ * 立即返回生成的附件ID. 后台刷写线程每隔 flush-interval-ms 或攒够 max-batch 条时，
+ * 在一个事务内批量写入（组提交）.
+ * <p>
+ * 溢出日志按段轮转：每次取出一批记录时切换到新段，该批提交成功后删除旧段.
+ * 进程在刷写前退出时，未删除的段会在下次启动后由刷写线程先行重放；重放使用 INSERT IGNORE，重复写入是幂等的.
+ * <p>
+ * 数据库暂时不可用（瞬时或可恢复的异常、连接失败）时整批退避重试；其他错误多半由个别记录引起，
+ * 此时改为逐行写入，写不进去的记录追加到溢出目录下的死信文件 attachments-dead-letter.jsonl（格式同溢出日志），
+ * 不再阻塞后续批次.
+ */
+@Component
+public class AttachmentWriteBehind {
+
+    private static final Logger log = LoggerFactory.getLogger(AttachmentWriteBehind.class);
+
+    private static final String INSERT_SQL =
+            "INSERT IGNORE INTO sys_attachment " +
+            "(id, target_id, file_path, file_name, type, sort_order, created_at) " +
+            "VALUES (?, ?, ?, ?, 2, ?, ?)";
+
+    private static final String SEGMENT_PREFIX = "attachments-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String DEAD_LETTER_FILE = "attachments-dead-letter.jsonl";
+    private static final long RETRY_BACKOFF_MS = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final IssueCache issueCache;
+    private final MetricsRegistry metrics;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final boolean enabled;
+    private final long flushIntervalMs;
+    private final int maxBatch;
+    private final int queueCapacity;
+    private final boolean fsync;
+    private final Path spillDir;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition batchReady = lock.newCondition();
+    private final ArrayDeque<PendingAttachment> queue = new ArrayDeque<>();
+    private FileChannel segment;
+    private Path segmentPath;
+    private long segmentSeq;
+    private volatile boolean running;
+    private Thread flusher;
+
+    public AttachmentWriteBehind(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, IssueCache issueCache,
+                                 MetricsRegistry metrics,
+                                 @Value("${mcp.systemlog.write-behind.enabled:false}") boolean enabled,
+                                 @Value("${mcp.systemlog.write-behind.flush-interval-ms:200}") long flushIntervalMs,
+                                 @Value("${mcp.systemlog.write-behind.max-batch:200}") int maxBatch,
+                                 @Value("${mcp.systemlog.write-behind.queue-capacity:10000}") int queueCapacity,
+                                 @Value("${mcp.systemlog.write-behind.fsync:false}") boolean fsync,
+                                 @Value("${mcp.systemlog.write-behind.spill-dir:${user.home}/.claude/mcp-attachment-spill}") String spillDir) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.issueCache = issueCache;
+        this.metrics = metrics;
+        this.enabled = enabled;
+        this.flushIntervalMs = Math.max(1, flushIntervalMs);
+        this.maxBatch = Math.max(1, maxBatch);
+        this.queueCapacity = Math.max(this.maxBatch, queueCapacity);
+        this.fsync = fsync;
+        this.spillDir = Paths.get(spillDir);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 启动刷写线程，上次遗留的溢出日志由刷写线程在后台重放，不阻塞启动
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(spillDir);
+        TreeMap<Long, Path> spilled = listSegments();
+        segmentSeq = spilled.isEmpty() ? 0 : spilled.lastKey();
+        openNewSegment();
+        running = true;
+        flusher = new Thread(() -> flushLoop(spilled), "attachment-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("附件写后缓冲已启用, flushIntervalMs={}, maxBatch={}, queueCapacity={}, spillDir={}",
+                flushIntervalMs, maxBatch, queueCapacity, spillDir);
+    }
+
+    /**
+     * 缓冲一条附件记录
+     * @return 生成的附件ID；队列已满或日志写入失败时返回 null，调用方应改为同步写入
+     */
+    public String enqueue(String targetId, String filePath, String fileName, int sortOrder) {
+        PendingAttachment attachment = new PendingAttachment(UUID.randomUUID().toString(), targetId, filePath,
+                fileName, sortOrder, System.currentTimeMillis());
+        lock.lock();
+        try {
+            if (!running || queue.size() >= queueCapacity) {
+                return null;
+            }
+            appendToSegment(attachment);
+            queue.addLast(attachment);
+            if (queue.size() == 1 || queue.size() >= maxBatch) {
+                batchReady.signal();
+            }
+            return attachment.id();
+        } catch (IOException e) {
+            log.error("写入附件溢出日志失败，改为同步写入", e);
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 关闭时停止刷写线程，并把队列中剩余的记录同步写入；写入失败的记录保留在溢出日志中
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        lock.lock();
+        try {
+            running = false;
+            batchReady.signal();
+        } finally {
+            lock.unlock();
+        }
+        flusher.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    private void flushLoop(TreeMap<Long, Path> spilled) {
+        if (!replayWithRetry(spilled)) {
+            return;
+        }
+        while (true) {
+            Batch batch;
+            try {
+                batch = awaitBatch();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (batch == null) {
+                return;
+            }
+            commit(batch);
+        }
+    }
+
+    /**
+     * 等待首条记录到达后，再等到攒够 max-batch 条或 flush-interval-ms 到期，取出一批并轮转日志段
+     * @return 已停止且队列为空时返回 null
+     */
+    private Batch awaitBatch() throws InterruptedException {
+        lock.lock();
+        try {
+            while (queue.isEmpty()) {
+                if (!running) {
+                    closeSegment(true);
+                    return null;
+                }
+                batchReady.await();
+            }
+            long remaining = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+            while (running && queue.size() < maxBatch && remaining > 0) {
+                remaining = batchReady.awaitNanos(remaining);
+            }
+
+            List<PendingAttachment> records = new ArrayList<>(Math.min(queue.size(), maxBatch));
+            while (!queue.isEmpty() && records.size() < maxBatch) {
+                records.add(queue.pollFirst());
+            }
+            Path committedSegment = segmentPath;
+            if (queue.isEmpty()) {
+                // 本段的全部记录都在这一批中，提交成功后即可删除
+                closeSegment(false);
+                if (running) {
+                    openNewSegment();
+                }
+            } else {
+                committedSegment = null;
+            }
+            return new Batch(records, committedSegment);
+        } catch (IOException e) {
+            throw new IllegalStateException("轮转附件溢出日志失败", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 组提交一批记录，数据库不可用时退避重试，直到成功或服务关闭
+     */
+    private void commit(Batch batch) {
+        while (true) {
+            try {
+                insertBatch("attachmentGroupCommit", List.of(batch.records()));
+                log.info("附件组提交完成, count={}", batch.records().size());
+                break;
+            } catch (Exception e) {
+                if (!running) {
+                    log.error("附件组提交失败，{} 条记录保留在溢出日志中，下次启动时重放", batch.records().size(), e);
+                    return;
+                }
+                log.error("附件组提交失败，{} ms 后重试", RETRY_BACKOFF_MS, e);
+                if (!backoff()) {
+                    return;
+                }
+            }
+        }
+        if (batch.segment() != null) {
+            deleteSegmentsUpTo(batch.segment());
+        }
+    }
+
+    /**
+     * 在一个事务内按块批量写入；遇到不可重试的错误时回滚，改为逐行写入
+     * @param chunks 每块一次 batchUpdate
+     * @throws RuntimeException 可重试的错误，调用方应退避后重新调用（INSERT IGNORE 保证重复写入幂等）
+     */
+    private void insertBatch(String operation, List<List<PendingAttachment>> chunks) {
+        try {
+            metrics.runJdbc(operation, () -> transactionTemplate.executeWithoutResult(tx -> {
+                for (List<PendingAttachment> chunk : chunks) {
+                    jdbcTemplate.batchUpdate(INSERT_SQL, chunk.stream().map(AttachmentWriteBehind::insertArgs).toList());
+                }
+            }));
+        } catch (RuntimeException e) {
+            if (isRetryable(e)) {
+                throw e;
+            }
+            log.error("附件批量写入遇到不可重试的错误，改为逐行写入", e);
+            for (List<PendingAttachment> chunk : chunks) {
+                insertRowByRow(chunk);
+            }
+        }
+        Set<String> targetIds = new HashSet<>();
+        for (List<PendingAttachment> chunk : chunks) {
+            for (PendingAttachment a : chunk) {
+                targetIds.add(a.targetId());
+            }
+        }
+        issueCache.invalidateAll(targetIds);
+    }
+
+    /**
+     * 逐行写入，不可重试的失败行移入死信文件
+     * @throws RuntimeException 可重试的错误，已写入的行重试时被 INSERT IGNORE 跳过，已移入死信的行可能再次移入，按 id 去重即可
+     */
+    private void insertRowByRow(List<PendingAttachment> records) {
+        for (PendingAttachment a : records) {
+            try {
+                metrics.runJdbc("attachmentRowInsert", () -> jdbcTemplate.update(INSERT_SQL, insertArgs(a)));
+            } catch (RuntimeException e) {
+                if (isRetryable(e)) {
+                    throw e;
+                }
+                deadLetter(a, e);
+            }
+        }
+    }
+
+    /**
+     * 数据库暂时不可用，整批退避重试即可恢复的错误.
+     * 连接失败在 Spring 中归为 NonTransient 的 DataAccessResourceFailureException，
+     * 取不到连接时事务模板抛出 CannotCreateTransactionException，二者都与具体记录无关，同样退避重试
+     */
+    private static boolean isRetryable(Throwable e) {
+        return e instanceof TransientDataAccessException || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException || e instanceof CannotCreateTransactionException;
+    }
+
+    private void deadLetter(PendingAttachment attachment, Exception cause) {
+        log.error("附件记录写入失败，已移入死信文件 {}: id={}, targetId={}", DEAD_LETTER_FILE,
+                attachment.id(), attachment.targetId(), cause);
+        try (FileChannel channel = FileChannel.open(spillDir.resolve(DEAD_LETTER_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            appendLine(channel, attachment);
+            channel.force(false);
+        } catch (IOException e) {
+            log.error("写入附件死信文件失败，记录内容: {}", attachment, e);
+        }
+    }
+
+    /**
+     * 重放启动前遗留的日志段，失败时退避重试
+     * @return 重放完成返回 true；服务在重放完成前关闭时返回 false，遗留段保留到下次启动
+     */
+    private boolean replayWithRetry(TreeMap<Long, Path> segments) {
+        if (segments.isEmpty()) {
+            return true;
+        }
+        while (running) {
+            try {
+                replaySpilledSegments(segments);
+                return true;
+            } catch (Exception e) {
+                log.error("重放附件溢出日志失败，{} ms 后重试", RETRY_BACKOFF_MS, e);
+                if (!backoff()) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean backoff() {
+        try {
+            Thread.sleep(RETRY_BACKOFF_MS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void replaySpilledSegments(TreeMap<Long, Path> segments) throws IOException {
+        List<PendingAttachment> records = new ArrayList<>();
+        for (Path path : segments.values()) {
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    try {
+                        records.add(mapper.readValue(line, PendingAttachment.class));
+                    } catch (IOException e) {
+                        // 进程退出时可能留下写了一半的最后一行
+                        log.warn("跳过损坏的溢出日志行: {}", path);
+                    }
+                }
+            }
+        }
+        if (!records.isEmpty()) {
+            List<List<PendingAttachment>> chunks = new ArrayList<>();
+            for (int from = 0; from < records.size(); from += maxBatch) {
+                chunks.add(records.subList(from, Math.min(from + maxBatch, records.size())));
+            }
+            insertBatch("attachmentReplay", chunks);
+        }
+        for (Path path : segments.values()) {
+            Files.deleteIfExists(path);
+        }
+        log.info("已重放附件溢出日志, segments={}, records={}", segments.size(), records.size());
+    }
+
+    private static Object[] insertArgs(PendingAttachment a) {
+        return new Object[] {a.id(), a.targetId(), a.filePath(), a.fileName(), a.sortOrder(), new Timestamp(a.createdAt())};
+    }
+
+    private void appendToSegment(PendingAttachment attachment) throws IOException {
+        appendLine(segment, attachment);
+        if (fsync) {
+            segment.force(false);
+        }
+    }
+
+    /**
+     * 追加一行 JSON 记录
+     */
+    private void appendLine(FileChannel channel, PendingAttachment attachment) throws IOException {
+        byte[] line = mapper.writeValueAsBytes(attachment);
+        ByteBuffer buffer = ByteBuffer.allocate(line.length + 1).put(line).put((byte) '\n').flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private void openNewSegment() throws IOException {
+        segmentSeq++;
+        segmentPath = spillDir.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, segmentSeq, SEGMENT_SUFFIX));
+        segment = FileChannel.open(segmentPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    /**
+     * @param deleteIfEmpty 最后关闭时，若本段没有任何记录则直接删除
+     */
+    private void closeSegment(boolean deleteIfEmpty) throws IOException {
+        if (segment == null) {
+            return;
+        }
+        boolean empty = segment.size() == 0;
+        segment.close();
+        segment = null;
+        if (deleteIfEmpty && empty) {
+            Files.deleteIfExists(segmentPath);
+        }
+    }
+
+    /**
+     * 删除序号不大于指定段的所有段：它们的记录要么已在本批提交，要么已在更早的批次提交
+     */
+    private void deleteSegmentsUpTo(Path committed) {
+        try {
+            long committedSeq = segmentSeq(committed);
+            for (var entry : listSegments().headMap(committedSeq, true).entrySet()) {
+                Files.deleteIfExists(entry.getValue());
+            }
+        } catch (IOException e) {
+            log.warn("删除已提交的附件溢出日志失败，下次启动时会幂等重放", e);
+        }
+    }
+
+    private TreeMap<Long, Path> listSegments() throws IOException {
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(spillDir,
+                SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                segments.put(segmentSeq(path), path);
+            }
+        }
+        return segments;
+    }
+
+    private static long segmentSeq(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * 待写入的附件记录，同时也是溢出日志中每一行的格式
+     */
+    record PendingAttachment(String id, String targetId, String filePath, String fileName,
+                             int sortOrder, long createdAt) {}
+
+    /**
+     * 一次组提交的记录
+     * @param segment 提交成功后可删除的日志段，批次未取尽该段时为 null
+     */
+    private record Batch(List<PendingAttachment> records, Path segment) {}
+}
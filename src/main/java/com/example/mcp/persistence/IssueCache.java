@@ -0,0 +1,85 @@
+package com.example.mcp.persistence;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 问题日志读穿缓存
+ * 按问题日志ID缓存渲染好的 referenceInfo 文档和关联的附件路径列表，
+ * 按容量和 TTL 淘汰；更新问题日志或保存附件时按ID失效.
+ */
+@Component
+public class IssueCache {
+
+    private final Cache<String, String> documents;
+    private final Cache<String, List<String>> attachmentPaths;
+
+    public IssueCache(@Value("${mcp.systemlog.cache.max-document-chars:4000000}") long maxDocumentChars,
+                      @Value("${mcp.systemlog.cache.max-entries:10000}") long maxEntries,
+                      @Value("${mcp.systemlog.cache.ttl-seconds:300}") long ttlSeconds) {
+        Duration ttl = Duration.ofSeconds(ttlSeconds);
+        this.documents = Caffeine.newBuilder()
+                .maximumWeight(maxDocumentChars)
+                .weigher((String id, String document) -> document.length())
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.attachmentPaths = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 读取问题日志文档，未命中时调用 loader 加载；loader 返回 null（记录不存在）时不缓存
+     */
+    public String document(String id, Function<String, String> loader) {
+        return documents.get(id, loader);
+    }
+
+    /**
+     * 批量读取附件路径，只对未命中的ID调用一次 loader
+     * loader 需要为每个请求的ID返回一项（没有附件时为空列表），否则该ID不会被缓存
+     */
+    public Map<String, List<String>> attachmentPaths(Collection<String> ids,
+                                                      Function<Set<? extends String>, Map<String, List<String>>> loader) {
+        return attachmentPaths.getAll(ids, loader);
+    }
+
+    public void invalidate(String id) {
+        documents.invalidate(id);
+        attachmentPaths.invalidate(id);
+    }
+
+    public void invalidateAll(Collection<String> ids) {
+        documents.invalidateAll(ids);
+        attachmentPaths.invalidateAll(ids);
+    }
+
+    public CacheStats documentStats() {
+        return documents.stats();
+    }
+
+    public CacheStats attachmentStats() {
+        return attachmentPaths.stats();
+    }
+
+    public long documentCount() {
+        return documents.estimatedSize();
+    }
+
+    public long attachmentCount() {
+        return attachmentPaths.estimatedSize();
+    }
+}
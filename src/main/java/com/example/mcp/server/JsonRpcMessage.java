@@ -0,0 +1,16 @@
+package com.example.mcp.server;
+
+import java.util.*;
+
+/**
+ * 一行输入解析出的 JSON-RPC 消息，可能是单个请求或批量请求
+ *
+ * @param requests 请求列表，单个请求时只有一个元素
+ * @param batch    输入是否为 JSON 数组（批量请求），批量请求的响应也以数组返回
+ */
+record JsonRpcMessage(List<JsonRpcRequest> requests, boolean batch) {
+
+    static JsonRpcMessage single(JsonRpcRequest request) {
+        return new JsonRpcMessage(List.of(request), false);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.mcp.server;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.*;
+
+/**
+ * JSON-RPC 请求
+ * 由 {@link StdioTransport} 通过流式解析直接绑定，不经过中间 Map.
+ *
+ * @param id           请求 ID，可能是数字或字符串
+ * @param method       方法名，缺失时为 null（无效请求）
+ * @param params       请求参数，未提供时为 null
+ * @param notification 请求中不含 id 字段时为 true，通知无需响应
+ * @param error        解析时发现的结构错误（JSON 合法但形状不对），非 null 时直接以该错误响应
+ */
+record JsonRpcRequest(Object id, String method, Params params, boolean notification, JsonRpcResponse.Error error) {
+
+    /**
+     * 请求参数，只绑定服务器用到的字段
+     *
+     * @param name      tools/call 的工具名称
+     * @param arguments tools/call 的工具参数
+     * @param requestId notifications/cancelled 要取消的请求 ID
+     * @param reason    notifications/cancelled 的取消原因
+     * @param meta      tools/call 的 _meta，目前只用到 progressToken
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Params(String name, Map<String, Object> arguments, Object requestId, String reason,
+                  @JsonProperty("_meta") Meta meta) {
+
+        Object progressToken() {
+            return meta != null ? meta.progressToken() : null;
+        }
+    }
+
+    /**
+     * @param progressToken 客户端希望接收 notifications/progress 时提供的令牌，可能是数字或字符串
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Meta(Object progressToken) {}
+}
@@ -0,0 +1,23 @@
+package com.example.mcp.server;
+
+/**
+ * JSON-RPC 响应，result 与 error 二选一
+ */
+record JsonRpcResponse(Object id, Object result, Error error) {
+
+    static final int PARSE_ERROR = -32700;
+    static final int INVALID_REQUEST = -32600;
+    static final int METHOD_NOT_FOUND = -32601;
+    static final int INVALID_PARAMS = -32602;
+    static final int INTERNAL_ERROR = -32603;
+
+    static JsonRpcResponse success(Object id, Object result) {
+        return new JsonRpcResponse(id, result, null);
+    }
+
+    static JsonRpcResponse error(Object id, int code, String message) {
+        return new JsonRpcResponse(id, null, new Error(code, message));
+    }
+
+    record Error(int code, String message) {}
+}
@@ -0,0 +1,56 @@
+package com.example.mcp.server;
+
+import com.example.mcp.metrics.CacheMetrics;
+import com.example.mcp.metrics.CacheMetricsMXBean;
+import com.example.mcp.metrics.LatencyMetrics;
+import com.example.mcp.metrics.LatencyMetricsMXBean;
+import com.example.mcp.tools.*;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.util.ClassUtils;
+
+/**
+ * GraalVM native image 的反射和资源提示
+ * 内置工具由编译期生成的分发器直接调用，无需反射；@Tool/@ToolParam 和 ToolInvoker 的条目
+ * 留给运行时追加的工具对象走反射回退路径.
+ * 其余条目覆盖 Jackson 绑定的记录类型、JMX MXBean、Druid/MySQL 驱动和 logback 配置中的组件.
+ */
+class McpRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.reflection().registerType(Tool.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+        hints.reflection().registerType(ToolParam.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+        // 参数转换器通过 MethodHandles.Lookup.findStatic 按名称查找
+        hints.reflection().registerType(ToolInvoker.class, MemberCategory.INVOKE_DECLARED_METHODS);
+
+        BindingReflectionHintsRegistrar binding = new BindingReflectionHintsRegistrar();
+        binding.registerReflectionHints(hints.reflection(), JsonRpcRequest.Params.class,
+                ClassUtils.resolveClassName("com.example.mcp.persistence.AttachmentWriteBehind$PendingAttachment",
+                        classLoader));
+
+        hints.reflection().registerType(LatencyMetricsMXBean.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+        hints.reflection().registerType(LatencyMetrics.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+        hints.reflection().registerType(CacheMetricsMXBean.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+        hints.reflection().registerType(CacheMetrics.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+
+        // spring.datasource.type 指定的连接池由 DataSourceBuilder 反射创建并调用 setter
+        hints.reflection().registerType(TypeReference.of("com.alibaba.druid.pool.DruidDataSource"),
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        hints.reflection().registerType(TypeReference.of("com.mysql.cj.jdbc.Driver"),
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.resources().registerPattern("com/mysql/cj/*.properties");
+
+        for (String logbackType : new String[] {
+                "ch.qos.logback.classic.AsyncAppender",
+                "ch.qos.logback.core.rolling.RollingFileAppender",
+                "ch.qos.logback.core.rolling.SizeAndTimeBasedRollingPolicy",
+                "ch.qos.logback.classic.encoder.PatternLayoutEncoder"}) {
+            hints.reflection().registerType(TypeReference.of(logbackType),
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+    }
+}
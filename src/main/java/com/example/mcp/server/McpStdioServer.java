@@ -1,227 +1,408 @@
 package com.example.mcp.server;
 
+import com.example.mcp.metrics.MetricsRegistry;
 import com.example.mcp.tools.*;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.*;
 import org.slf4j.*;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.*;
+import org.springframework.util.function.SingletonSupplier;
 
 import java.io.*;
-import java.lang.reflect.*;
+import java.lang.management.ManagementFactory;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 
 /**
  * MCP 协议服务器
  * 通过 stdio 与 Claude 通信.
+ * <p>
+ * 默认以并发模式分发请求：每个请求在虚拟线程中执行，响应按完成顺序写回，
+ * 客户端通过 JSON-RPC 的 id 进行匹配，同时处理中的请求数受 max-in-flight 限制.
+ * 消息的读写由 {@link StdioTransport} 以流式方式完成.
+ * 支持 JSON-RPC 2.0 批量请求：批量中的各项并行执行，全部完成后以一个数组响应返回.
+ * <p>
+ * 工具取自编译期生成的 {@link GeneratedToolRegistry}，工具 Bean 在第一次被调用时才从容器获取，
+ * 数据源随系统日志工具延迟初始化，initialize 和 tools/list 不会触及数据库；
+ * 写出第一个响应时记录 JVM 启动到首个响应的耗时.
+ * <p>
+ * 工具调用经 {@link ToolExecutor} 执行：按工具配置超时、按工具类限制并发，
+ * 并发模式下可通过 notifications/cancelled 中断正在执行的调用，被取消的请求不再响应；
+ * 标记为可缓存的纯函数工具先查 {@link ToolResultCache}，命中时不再执行.
+ * 请求带 _meta.progressToken 时，工具通过 {@link ToolProgress} 上报的进度以 notifications/progress 发出.
  */
 @Component
 @ConditionalOnProperty(name = "mcp.server.enabled", havingValue = "true")
+@ImportRuntimeHints(McpRuntimeHints.class)
 public class McpStdioServer implements CommandLineRunner {
 
     private static final Logger log = LoggerFactory.getLogger(McpStdioServer.class);
     private final ObjectMapper mapper = new ObjectMapper();
-    private final Map<String, ToolInfo> tools = new ConcurrentHashMap<>();
-    
-    private final CalculatorTools calculatorTools;
-    private final StringTools stringTools;
-    private final TimeTools timeTools;
-    private final UserTools userTools;
-    private final CryptoTools cryptoTools;
-    private final SystemLogTools systemLogTools;
-
-    public McpStdioServer(CalculatorTools calculatorTools, StringTools stringTools,
-                          TimeTools timeTools, UserTools userTools, CryptoTools cryptoTools,
-                          SystemLogTools systemLogTools) {
-        this.calculatorTools = calculatorTools;
-        this.stringTools = stringTools;
-        this.timeTools = timeTools;
-        this.userTools = userTools;
-        this.cryptoTools = cryptoTools;
-        this.systemLogTools = systemLogTools;
-        registerTools();
-    }
-
-    private void registerTools() {
-        registerToolObject(calculatorTools);
-        registerToolObject(stringTools);
-        registerToolObject(timeTools);
-        registerToolObject(userTools);
-        registerToolObject(cryptoTools);
-        registerToolObject(systemLogTools);
-    }
-
-    private void registerToolObject(Object toolObj) {
-        for (Method method : toolObj.getClass().getDeclaredMethods()) {
-            Tool toolAnnotation = method.getAnnotation(Tool.class);
-            if (toolAnnotation != null) {
-                String toolName = toolObj.getClass().getSimpleName().replace("Tools", "") + "_" + method.getName();
-                tools.put(toolName.toLowerCase(), new ToolInfo(toolObj, method, toolAnnotation.description()));
-            }
-        }
+    private final ToolRegistry registry;
+    private volatile StdioTransport transport;
+    private final boolean concurrentDispatch;
+    private final int maxInFlight;
+    private final MetricsRegistry metricsRegistry;
+    private final AtomicBoolean firstResponseSent = new AtomicBoolean();
+    private final ToolExecutor toolExecutor;
+    private final ToolResultCache resultCache;
+
+    public McpStdioServer(BeanFactory beanFactory, MetricsRegistry metricsRegistry, Environment environment,
+                          @Value("${mcp.server.dispatch.concurrent:true}") boolean concurrentDispatch,
+                          @Value("${mcp.server.dispatch.max-in-flight:64}") int maxInFlight) {
+        this.metricsRegistry = metricsRegistry;
+        this.registry = new ToolRegistry(mapper, metricsRegistry);
+        this.toolExecutor = new ToolExecutor(environment);
+        this.resultCache = new ToolResultCache(environment, metricsRegistry);
+        this.concurrentDispatch = concurrentDispatch;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        registry.register(GeneratedToolRegistry.definitions(),
+                toolClass -> SingletonSupplier.of(() -> beanFactory.getBean(toolClass)));
+        registry.onListChanged(this::notifyToolListChanged);
+    }
+
+    /**
+     * 运行时追加工具对象，已连接的客户端会收到 tools/list_changed 通知
+     */
+    public void registerToolObject(Object toolObj) {
+        registry.register(toolObj);
+    }
+
+    /**
+     * 运行时移除工具，已连接的客户端会收到 tools/list_changed 通知
+     */
+    public boolean unregisterTool(String toolName) {
+        return registry.unregister(toolName);
     }
 
     @Override
     public void run(String... args) {
-        log.info("MCP Stdio Server 启动，共注册 {} 个工具", tools.size());
-        
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
-             PrintWriter writer = new PrintWriter(new OutputStreamWriter(System.out), true)) {
-            
-            String line;
-            while ((line = reader.readLine()) != null) {
-                try {
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> request = mapper.readValue(line, Map.class);
-                    Map<String, Object> response = handleRequest(request);
-                    if (response != null) {
-                        writer.println(mapper.writeValueAsString(response));
-                        writer.flush();
-                    }
-                } catch (Exception e) {
-                    log.error("处理请求失败", e);
-                    Map<String, Object> error = new LinkedHashMap<>();
-                    error.put("jsonrpc", "2.0");
-                    error.put("error", Map.of("code", -32700, "message", e.getMessage()));
-                    writer.println(mapper.writeValueAsString(error));
-                    writer.flush();
+        log.info("MCP Stdio Server 启动，共注册 {} 个工具，分发模式: {}，最大并发请求数: {}",
+                registry.size(), concurrentDispatch ? "并发" : "串行", maxInFlight);
+        serve(System.in, System.out);
+    }
+
+    /**
+     * 在给定的输入输出流上处理消息直到输入结束
+     */
+    void serve(InputStream in, OutputStream out) {
+        try (StdioTransport stdio = new StdioTransport(mapper, in, out)) {
+            transport = stdio;
+            if (concurrentDispatch) {
+                runConcurrent(stdio);
+            } else {
+                JsonRpcMessage message;
+                while ((message = readMessage(stdio)) != null) {
+                    dispatchSerial(message, stdio);
                 }
             }
         } catch (IOException e) {
             log.error("MCP 服务器错误", e);
+        } finally {
+            transport = null;
         }
     }
 
-    @SuppressWarnings("unchecked")
-    private Map<String, Object> handleRequest(Map<String, Object> request) {
-        String method = (String) request.get("method");
-        Object id = request.get("id");
+    /**
+     * 并发分发：读取线程只负责读取、解析和限流，请求在虚拟线程中执行.
+     * 输入结束后等待所有处理中的请求完成再关闭输出.
+     */
+    private void runConcurrent(StdioTransport stdio) throws IOException {
+        Semaphore permits = new Semaphore(maxInFlight);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            JsonRpcMessage message;
+            read:
+            while ((message = readMessage(stdio)) != null) {
+                if (message.batch() && message.requests().isEmpty()) {
+                    send(stdio, JsonRpcResponse.error(null, JsonRpcResponse.INVALID_REQUEST, "Invalid Request: 空的批量请求"));
+                    continue;
+                }
+                BatchCollector batch = message.batch() ? new BatchCollector(stdio, message.requests().size()) : null;
+                List<JsonRpcRequest> requests = message.requests();
+                for (int i = 0; i < requests.size(); i++) {
+                    try {
+                        permits.acquire();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        log.warn("等待请求许可时被中断，停止读取输入");
+                        break read;
+                    }
+                    JsonRpcRequest request = requests.get(i);
+                    int index = i;
+                    executor.execute(() -> {
+                        try {
+                            JsonRpcResponse response = process(request);
+                            if (batch != null) {
+                                batch.complete(index, response);
+                            } else if (response != null) {
+                                send(stdio, response);
+                            }
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                }
+            }
+        }
+    }
+
+    /**
+     * 读取下一条消息，无法解析的行直接回复 Parse error 并继续读取
+     * @return 输入结束时返回 null
+     */
+    private JsonRpcMessage readMessage(StdioTransport stdio) throws IOException {
+        while (true) {
+            try {
+                return stdio.read();
+            } catch (JsonProcessingException e) {
+                log.error("解析请求失败", e);
+                send(stdio, JsonRpcResponse.error(null, JsonRpcResponse.PARSE_ERROR,
+                        "Parse error: " + e.getOriginalMessage()));
+            }
+        }
+    }
+
+    /**
+     * 串行模式下逐项处理消息，批量请求的各项按顺序执行
+     */
+    private void dispatchSerial(JsonRpcMessage message, StdioTransport stdio) {
+        if (!message.batch()) {
+            JsonRpcResponse response = process(message.requests().get(0));
+            if (response != null) {
+                send(stdio, response);
+            }
+            return;
+        }
+        if (message.requests().isEmpty()) {
+            send(stdio, JsonRpcResponse.error(null, JsonRpcResponse.INVALID_REQUEST, "Invalid Request: 空的批量请求"));
+            return;
+        }
+        BatchCollector batch = new BatchCollector(stdio, message.requests().size());
+        for (int i = 0; i < message.requests().size(); i++) {
+            batch.complete(i, process(message.requests().get(i)));
+        }
+    }
+
+    /**
+     * 处理一条请求
+     * @return 响应，通知类请求返回 null
+     */
+    private JsonRpcResponse process(JsonRpcRequest request) {
+        JsonRpcResponse response;
+        try {
+            response = handleRequest(request);
+        } catch (Exception e) {
+            log.error("处理请求失败", e);
+            response = JsonRpcResponse.error(request.id(), JsonRpcResponse.INTERNAL_ERROR, "Internal error: " + e.getMessage());
+        }
+        return request.notification() ? null : response;
+    }
+
+    private void send(StdioTransport stdio, JsonRpcResponse response) {
+        try {
+            stdio.send(response);
+            onResponseSent();
+        } catch (IOException e) {
+            log.error("写出响应失败", e);
+        }
+    }
+
+    private void onResponseSent() {
+        if (!firstResponseSent.get() && firstResponseSent.compareAndSet(false, true)) {
+            long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+            metricsRegistry.recordFirstResponse(uptime);
+            log.info("JVM 启动到首个响应耗时 {} ms", uptime);
+        }
+    }
+
+    private JsonRpcResponse handleRequest(JsonRpcRequest request) {
+        String method = request.method();
+        Object id = request.id();
+
+        if (request.error() != null) {
+            return new JsonRpcResponse(id, null, request.error());
+        }
+
+        if (method == null) {
+            return JsonRpcResponse.error(id, JsonRpcResponse.INVALID_REQUEST, "Invalid Request");
+        }
         
         if ("initialize".equals(method)) {
             Map<String, Object> result = new LinkedHashMap<>();
             result.put("protocolVersion", "2024-11-05");
-            result.put("capabilities", Map.of("tools", Map.of()));
+            result.put("capabilities", Map.of("tools", Map.of("listChanged", true)));
             result.put("serverInfo", Map.of("name", "mcp-server-demo", "version", "1.0.0"));
-            return createResponse(id, result);
+            return JsonRpcResponse.success(id, result);
         }
         
         if ("tools/list".equals(method)) {
-            List<Map<String, Object>> toolList = new ArrayList<>();
-            for (Map.Entry<String, ToolInfo> entry : tools.entrySet()) {
-                Map<String, Object> tool = new LinkedHashMap<>();
-                tool.put("name", entry.getKey());
-                tool.put("description", entry.getValue().description());
-                tool.put("inputSchema", createInputSchema(entry.getValue()));
-                toolList.add(tool);
-            }
-            return createResponse(id, Map.of("tools", toolList));
+            return JsonRpcResponse.success(id, registry.listResult());
         }
         
         if ("tools/call".equals(method)) {
-            Map<String, Object> params = (Map<String, Object>) request.get("params");
-            String toolName = (String) params.get("name");
-            Map<String, Object> arguments = params.containsKey("arguments") 
-                ? (Map<String, Object>) params.get("arguments") 
+            JsonRpcRequest.Params params = request.params();
+            if (params == null || params.name() == null) {
+                return JsonRpcResponse.error(id, JsonRpcResponse.INVALID_PARAMS, "Invalid params: 缺少工具名称");
+            }
+            Map<String, Object> arguments = params.arguments() != null
+                ? params.arguments()
                 : Collections.emptyMap();
             
             try {
-                Object result = callTool(toolName, arguments);
-                return createResponse(id, Map.of("content", 
-                    List.of(Map.of("type", "text", "text", String.valueOf(result)))));
+                Object result = callTool(id, params.name(), arguments, progressNotifier(params.progressToken()));
+                return JsonRpcResponse.success(id, ToolCallResult.success(result));
+            } catch (CancellationException e) {
+                return null; // 被取消的请求不再响应
             } catch (Exception e) {
-                return createResponse(id, Map.of("isError", true, 
-                    "content", List.of(Map.of("type", "text", "text", "错误: " + e.getMessage()))));
+                return JsonRpcResponse.success(id, ToolCallResult.failure(e.getMessage()));
             }
         }
         
         if ("notifications/initialized".equals(method)) {
             return null; // 无需响应
         }
-        
-        return createErrorResponse(id, -32601, "Method not found: " + method);
-    }
 
-    private Map<String, Object> createInputSchema(ToolInfo toolInfo) {
-        Map<String, Object> schema = new LinkedHashMap<>();
-        schema.put("type", "object");
-        
-        Map<String, Object> properties = new LinkedHashMap<>();
-        List<String> required = new ArrayList<>();
-        
-        for (Parameter param : toolInfo.method().getParameters()) {
-            ToolParam tp = param.getAnnotation(ToolParam.class);
-            String paramName = param.getName();
-            
-            Map<String, Object> prop = new LinkedHashMap<>();
-            prop.put("type", getType(param.getType()));
-            prop.put("description", tp != null ? tp.description() : paramName);
-            properties.put(paramName, prop);
-            required.add(paramName);
+        if ("notifications/cancelled".equals(method)) {
+            JsonRpcRequest.Params params = request.params();
+            if (params != null && toolExecutor.cancel(params.requestId())) {
+                log.info("已取消请求 {}，原因: {}", params.requestId(), params.reason());
+            }
+            return null;
         }
         
-        schema.put("properties", properties);
-        if (!required.isEmpty()) {
-            schema.put("required", required);
-        }
-        return schema;
+        return JsonRpcResponse.error(id, JsonRpcResponse.METHOD_NOT_FOUND, "Method not found: " + method);
     }
 
-    private String getType(Class<?> clazz) {
-        if (clazz == int.class || clazz == Integer.class || 
-            clazz == long.class || clazz == Long.class || 
-            clazz == double.class || clazz == Double.class) {
-            return "number";
-        } else if (clazz == boolean.class || clazz == Boolean.class) {
-            return "boolean";
+    /**
+     * 调用工具并记录耗时，抛出异常、超时和被取消的调用计为错误.
+     * 返回前关闭进度通知，此后工具线程（超时或取消后可能仍在运行）的上报都被丢弃，进度通知不会出现在响应之后
+     */
+    private Object callTool(Object requestId, String toolName, Map<String, Object> args,
+                            ProgressNotifier progress) throws Exception {
+        try {
+            ToolRegistry.ToolInfo info = registry.get(toolName);
+            if (info == null) {
+                throw new IllegalArgumentException("Unknown tool: " + toolName);
+            }
+
+            long start = info.metrics().start();
+            boolean success = false;
+            try {
+                Object result = resultCache.get(info, args, () -> toolExecutor.execute(requestId, info, args, progress));
+                success = true;
+                return result;
+            } finally {
+                info.metrics().stop(start, success);
+            }
+        } finally {
+            if (progress != null) {
+                progress.close();
+            }
         }
-        return "string";
     }
 
-    private Object callTool(String toolName, Map<String, Object> args) throws Exception {
-        ToolInfo info = tools.get(toolName.toLowerCase());
-        if (info == null) {
-            throw new IllegalArgumentException("Unknown tool: " + toolName);
+    /**
+     * 客户端提供了进度令牌时创建进度通知，否则返回 null
+     */
+    private ProgressNotifier progressNotifier(Object progressToken) {
+        return progressToken == null ? null : new ProgressNotifier(progressToken);
+    }
+
+    /**
+     * 把工具上报的进度转为 notifications/progress.
+     * 上报与关闭互斥：{@link #close} 返回后不会再写出通知，正在写出的通知也已写完
+     */
+    private final class ProgressNotifier implements ToolProgress.Listener {
+
+        private final Object progressToken;
+        private boolean closed;
+
+        ProgressNotifier(Object progressToken) {
+            this.progressToken = progressToken;
         }
-        
-        Parameter[] params = info.method().getParameters();
-        Object[] argsArray = new Object[params.length];
-        
-        for (int i = 0; i < params.length; i++) {
-            String paramName = params[i].getName();
-            Object value = args.get(paramName);
-            
-            if (value == null) {
-                argsArray[i] = null;
-            } else if (params[i].getType() == int.class || params[i].getType() == Integer.class) {
-                argsArray[i] = ((Number) value).intValue();
-            } else if (params[i].getType() == double.class || params[i].getType() == Double.class) {
-                argsArray[i] = ((Number) value).doubleValue();
-            } else if (params[i].getType() == long.class || params[i].getType() == Long.class) {
-                argsArray[i] = ((Number) value).longValue();
-            } else {
-                argsArray[i] = value;
+
+        @Override
+        public synchronized void onProgress(long progress, Long total, String message) {
+            StdioTransport stdio = transport;
+            if (closed || stdio == null) {
+                return;
+            }
+            Map<String, Object> params = new LinkedHashMap<>();
+            params.put("progressToken", progressToken);
+            params.put("progress", progress);
+            if (total != null) {
+                params.put("total", total);
+            }
+            if (message != null) {
+                params.put("message", message);
+            }
+            try {
+                stdio.sendNotification("notifications/progress", params);
+            } catch (IOException e) {
+                log.error("发送进度通知失败", e);
             }
         }
-        
-        return info.method().invoke(info.instance(), argsArray);
-    }
 
-    private Map<String, Object> createResponse(Object id, Object result) {
-        Map<String, Object> response = new LinkedHashMap<>();
-        response.put("jsonrpc", "2.0");
-        response.put("id", id);
-        response.put("result", result);
-        return response;
+        synchronized void close() {
+            closed = true;
+        }
     }
 
-    private Map<String, Object> createErrorResponse(Object id, int code, String message) {
-        Map<String, Object> response = new LinkedHashMap<>();
-        response.put("jsonrpc", "2.0");
-        response.put("id", id);
-        response.put("error", Map.of("code", code, "message", message));
-        return response;
+    /**
+     * 收集批量请求中各项的响应，最后一项完成时按原顺序写出一个数组响应.
+     * 通知项不产生响应；若批量中全是通知则不写出任何内容.
+     */
+    private final class BatchCollector {
+
+        private final StdioTransport stdio;
+        private final JsonRpcResponse[] responses;
+        private final AtomicInteger remaining;
+
+        BatchCollector(StdioTransport stdio, int size) {
+            this.stdio = stdio;
+            this.responses = new JsonRpcResponse[size];
+            this.remaining = new AtomicInteger(size);
+        }
+
+        void complete(int index, JsonRpcResponse response) {
+            responses[index] = response;
+            if (remaining.decrementAndGet() == 0) {
+                List<JsonRpcResponse> results = new ArrayList<>(responses.length);
+                for (JsonRpcResponse r : responses) {
+                    if (r != null) {
+                        results.add(r);
+                    }
+                }
+                if (!results.isEmpty()) {
+                    try {
+                        stdio.sendBatch(results);
+                        onResponseSent();
+                    } catch (IOException e) {
+                        log.error("写出批量响应失败", e);
+                    }
+                }
+            }
+        }
     }
 
-    private record ToolInfo(Object instance, Method method, String description) {}
+    /**
+     * 工具集合变化时通知客户端重新拉取 tools/list
+     */
+    private void notifyToolListChanged() {
+        StdioTransport stdio = transport;
+        if (stdio != null) {
+            try {
+                stdio.sendNotification("notifications/tools/list_changed");
+            } catch (IOException e) {
+                log.error("发送工具列表变更通知失败", e);
+            }
+        }
+    }
 }
@@ -0,0 +1,279 @@
+package com.example.mcp.server;
+
+import com.fasterxml.jackson.core.*;
+import com.fasterxml.jackson.databind.*;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.util.RawValue;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * 基于 stdio 的 JSON-RPC 传输层
+ * 按行（换行符分隔）从输入字节流读取消息，用 JsonParser 直接绑定为 {@link JsonRpcRequest}，
+ * 一行也可以是 JSON-RPC 2.0 批量请求数组；
+ * 响应用同一个 JsonGenerator 写入带缓冲的输出流，全程不经过中间 String 和 Map.
+ * <p>
+ * 读取只能由单个线程调用；写出方法线程安全.
+ */
+final class StdioTransport implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ObjectMapper mapper;
+    private final InputStream in;
+    private final JsonGenerator generator;
+    private final Object writeLock = new Object();
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private byte[] line = new byte[8 * 1024];
+    private int lineLength;
+
+    StdioTransport(ObjectMapper mapper, InputStream in, OutputStream out) throws IOException {
+        this.mapper = mapper;
+        this.in = in;
+        this.generator = mapper.createGenerator(new BufferedOutputStream(out, BUFFER_SIZE), JsonEncoding.UTF8);
+        this.generator.setRootValueSeparator(null);
+    }
+
+    /**
+     * 读取并解析下一条消息，空行会被跳过
+     * @return 输入结束时返回 null
+     * @throws JsonProcessingException 该行不是合法 JSON，此时该行已被消费，可继续读取下一条；
+     *                                 JSON 合法但 id 或 params 形状不对时不抛出，而是返回带 error 的请求
+     */
+    JsonRpcMessage read() throws IOException {
+        do {
+            if (!readLine()) {
+                return null;
+            }
+        } while (lineLength == 0);
+
+        try (JsonParser parser = mapper.createParser(line, 0, lineLength)) {
+            JsonRpcMessage message;
+            if (parser.nextToken() == JsonToken.START_ARRAY) {
+                List<JsonRpcRequest> requests = new ArrayList<>();
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    requests.add(parseRequest(parser));
+                }
+                message = new JsonRpcMessage(requests, true);
+            } else {
+                message = JsonRpcMessage.single(parseRequest(parser));
+            }
+            if (parser.nextToken() != null) {
+                throw new JsonParseException(parser, "消息后存在多余内容");
+            }
+            return message;
+        }
+    }
+
+    /**
+     * 读取一行到 line 缓冲区（不含行尾的 \r\n），最后一行可以没有换行符
+     */
+    private boolean readLine() throws IOException {
+        lineLength = 0;
+        boolean consumed = false;
+        while (true) {
+            if (position == limit) {
+                int n = in.read(buffer, 0, buffer.length);
+                if (n <= 0) {
+                    position = limit = 0;
+                    return consumed;
+                }
+                position = 0;
+                limit = n;
+            }
+            consumed = true;
+            int start = position;
+            while (position < limit && buffer[position] != '\n') {
+                position++;
+            }
+            appendToLine(start, position - start);
+            if (position < limit) {
+                position++;
+                if (lineLength > 0 && line[lineLength - 1] == '\r') {
+                    lineLength--;
+                }
+                return true;
+            }
+        }
+    }
+
+    private void appendToLine(int offset, int length) {
+        if (lineLength + length > line.length) {
+            line = Arrays.copyOf(line, Math.max(line.length * 2, lineLength + length));
+        }
+        System.arraycopy(buffer, offset, line, lineLength, length);
+        lineLength += length;
+    }
+
+    /**
+     * 从当前 token 开始解析单个请求，不是对象时返回无效请求.
+     * id 不是整数、字符串或 null 时标记为 Invalid Request，params 字段类型不符时标记为 Invalid params
+     */
+    private JsonRpcRequest parseRequest(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return new JsonRpcRequest(null, null, null, false, null);
+        }
+
+        Object id = null;
+        boolean hasId = false;
+        boolean invalidId = false;
+        String method = null;
+        JsonRpcRequest.Params params = null;
+        String invalidParams = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "id" -> {
+                    hasId = true;
+                    switch (value) {
+                        case VALUE_NUMBER_INT -> id = parser.getNumberValue();
+                        case VALUE_STRING -> id = parser.getText();
+                        case VALUE_NULL -> id = null;
+                        default -> {
+                            parser.skipChildren();
+                            invalidId = true;
+                        }
+                    }
+                }
+                case "method" -> method = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                case "params" -> {
+                    if (value == JsonToken.START_OBJECT) {
+                        JsonStreamContext request = parser.getParsingContext().getParent();
+                        try {
+                            params = mapper.readValue(parser, JsonRpcRequest.Params.class);
+                        } catch (MismatchedInputException e) {
+                            invalidParams = e.getOriginalMessage();
+                            // 绑定中途失败，跳过 params 对象的剩余部分，继续解析请求的其他字段
+                            while (parser.getParsingContext() != request) {
+                                if (parser.nextToken() == null) {
+                                    throw new JsonParseException(parser, "params 不完整");
+                                }
+                            }
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        JsonRpcResponse.Error error = null;
+        if (invalidId) {
+            id = null;
+            error = new JsonRpcResponse.Error(JsonRpcResponse.INVALID_REQUEST, "Invalid Request: 无效的请求 id");
+        } else if (invalidParams != null) {
+            error = new JsonRpcResponse.Error(JsonRpcResponse.INVALID_PARAMS, "Invalid params: " + invalidParams);
+        }
+        return new JsonRpcRequest(id, method, params, !hasId, error);
+    }
+
+    void send(JsonRpcResponse response) throws IOException {
+        synchronized (writeLock) {
+            writeResponse(response);
+            endMessage();
+        }
+    }
+
+    /**
+     * 批量响应作为一个数组写在同一行
+     */
+    void sendBatch(List<JsonRpcResponse> responses) throws IOException {
+        synchronized (writeLock) {
+            generator.writeStartArray();
+            for (JsonRpcResponse response : responses) {
+                writeResponse(response);
+            }
+            generator.writeEndArray();
+            endMessage();
+        }
+    }
+
+    private void writeResponse(JsonRpcResponse response) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("jsonrpc", "2.0");
+        generator.writeFieldName("id");
+        writeId(response.id());
+        if (response.error() != null) {
+            generator.writeObjectFieldStart("error");
+            generator.writeNumberField("code", response.error().code());
+            generator.writeStringField("message", response.error().message());
+            generator.writeEndObject();
+        } else {
+            generator.writeFieldName("result");
+            writeResult(response.result());
+        }
+        generator.writeEndObject();
+    }
+
+    void sendNotification(String method) throws IOException {
+        sendNotification(method, null);
+    }
+
+    /**
+     * @param params 通知参数，为 null 时不写 params 字段
+     */
+    void sendNotification(String method, Object params) throws IOException {
+        synchronized (writeLock) {
+            generator.writeStartObject();
+            generator.writeStringField("jsonrpc", "2.0");
+            generator.writeStringField("method", method);
+            if (params != null) {
+                generator.writeFieldName("params");
+                generator.writeObject(params);
+            }
+            generator.writeEndObject();
+            endMessage();
+        }
+    }
+
+    private void writeId(Object id) throws IOException {
+        if (id == null) {
+            generator.writeNull();
+        } else if (id instanceof Integer i) {
+            generator.writeNumber(i);
+        } else if (id instanceof Long l) {
+            generator.writeNumber(l);
+        } else if (id instanceof String s) {
+            generator.writeString(s);
+        } else {
+            generator.writeObject(id);
+        }
+    }
+
+    private void writeResult(Object result) throws IOException {
+        if (result instanceof ToolCallResult toolResult) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("content");
+            generator.writeStartObject();
+            generator.writeStringField("type", "text");
+            generator.writeStringField("text", toolResult.text());
+            generator.writeEndObject();
+            generator.writeEndArray();
+            if (toolResult.isError()) {
+                generator.writeBooleanField("isError", true);
+            }
+            generator.writeEndObject();
+        } else if (result instanceof RawValue raw) {
+            raw.serialize(generator, null);
+        } else {
+            generator.writeObject(result);
+        }
+    }
+
+    private void endMessage() throws IOException {
+        generator.writeRaw('\n');
+        generator.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (writeLock) {
+            generator.close();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.mcp.server;
+
+/**
+ * tools/call 的结果，序列化为单个 text 类型的 content
+ */
+record ToolCallResult(String text, boolean isError) {
+
+    static ToolCallResult success(Object value) {
+        return new ToolCallResult(String.valueOf(value), false);
+    }
+
+    static ToolCallResult failure(String message) {
+        return new ToolCallResult("错误: " + message, true);
+    }
+}
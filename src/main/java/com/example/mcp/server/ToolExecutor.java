@@ -0,0 +1,199 @@
+package com.example.mcp.server;
+
+import com.example.mcp.tools.ToolProgress;
+import org.slf4j.*;
+import org.springframework.core.env.Environment;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * 工具调用的隔离与超时控制
+ * 每个工具类（工具名前缀，如 systemlog）有独立的舱壁：一个并发上限和一组专用的平台线程，
+ * 调用方最多等待该工具的超时时间，超时或收到取消通知时中断执行线程.
+ * 许可一直占用到调用真正结束，某个工具类的调用全部挂起时只会拒绝该类的新调用，不影响其他工具.
+ * <p>
+ * 工具不在虚拟线程中执行：JDBC 驱动在 synchronized 块内阻塞会钉住载体线程，
+ * 载体线程耗尽后连等待超时的请求线程都无法被调度.
+ * <p>
+ * 超时按 工具名 → 工具类 → default 的顺序读取 mcp.server.tools.timeout-ms.*，
+ * 并发上限按 工具类 → default 的顺序读取 mcp.server.tools.max-concurrent.*.
+ */
+final class ToolExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(ToolExecutor.class);
+    private static final String TIMEOUT_PREFIX = "mcp.server.tools.timeout-ms.";
+    private static final String CONCURRENCY_PREFIX = "mcp.server.tools.max-concurrent.";
+
+    private final Environment environment;
+    private final long acquireTimeoutMillis;
+    private final Map<String, Long> timeouts = new ConcurrentHashMap<>();
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+    private final Map<Object, Call> running = new ConcurrentHashMap<>();
+
+    ToolExecutor(Environment environment) {
+        this.environment = environment;
+        this.acquireTimeoutMillis = environment.getProperty("mcp.server.tools.acquire-timeout-ms", Long.class, 100L);
+    }
+
+    /**
+     * 在舱壁和超时限制下执行工具调用
+     * @param requestId 请求 ID，用于取消；为 null 时调用不可取消
+     * @param progress  绑定到执行线程的进度监听器，可为 null
+     * @throws TimeoutException       超过该工具的超时时间
+     * @throws CancellationException  调用被 {@link #cancel} 取消
+     * @throws RejectedExecutionException 该工具类的并发调用已达上限
+     */
+    Object execute(Object requestId, ToolRegistry.ToolInfo info, Map<String, Object> args,
+                   ToolProgress.Listener progress) throws Exception {
+        String group = group(info.name());
+        Bulkhead bulkhead = bulkheads.computeIfAbsent(group, g -> new Bulkhead(g,
+                Math.max(1, setting(CONCURRENCY_PREFIX, g, g, 16L).intValue())));
+        Call call = new Call();
+        Object key = key(requestId);
+        if (key != null) {
+            running.put(key, call);
+        }
+        long timeout = timeouts.computeIfAbsent(info.name(), name -> setting(TIMEOUT_PREFIX, name, group, 30_000L));
+        try {
+            if (!bulkhead.permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new RejectedExecutionException("工具类 " + group + " 的并发调用已达上限，请稍后重试");
+            }
+            return call.start(bulkhead, () -> ToolProgress.call(progress, () -> info.call(args)))
+                    .get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            call.cancel();
+            log.warn("工具调用超时，已中断: {}，超时 {} ms", info.name(), timeout);
+            throw new TimeoutException("工具调用超时（" + timeout + " ms）: " + info.name());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception ex) {
+                throw ex;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        } catch (InterruptedException e) {
+            call.cancel();
+            Thread.currentThread().interrupt();
+            throw e;
+        } finally {
+            if (key != null) {
+                running.remove(key, call);
+            }
+        }
+    }
+
+    /**
+     * 取消指定请求正在执行的工具调用
+     * @return 找到并取消了调用时返回 true
+     */
+    boolean cancel(Object requestId) {
+        Object key = key(requestId);
+        Call call = key == null ? null : running.remove(key);
+        if (call == null) {
+            return false;
+        }
+        call.cancel();
+        return true;
+    }
+
+    /**
+     * 工具类名称，即工具名中第一个下划线之前的部分
+     */
+    private static String group(String toolName) {
+        int index = toolName.indexOf('_');
+        return index < 0 ? toolName : toolName.substring(0, index);
+    }
+
+    private Long setting(String prefix, String toolName, String group, long defaultValue) {
+        Long value = environment.getProperty(prefix + toolName, Long.class);
+        if (value == null) {
+            value = environment.getProperty(prefix + group, Long.class);
+        }
+        return value != null ? value : environment.getProperty(prefix + "default", Long.class, defaultValue);
+    }
+
+    /**
+     * 数字 ID 统一为 long，避免 1 和 1L 对应不同的键
+     */
+    private static Object key(Object requestId) {
+        return requestId instanceof Number n ? Long.valueOf(n.longValue()) : requestId;
+    }
+
+    /**
+     * 工具类的舱壁：并发许可和专用线程池，线程数不会超过许可数，空闲 60 秒后回收
+     * 线程为守护线程，挂起的调用不会阻止进程退出
+     */
+    private static final class Bulkhead {
+
+        private final Semaphore permits;
+        private final ExecutorService executor;
+
+        Bulkhead(String group, int maxConcurrent) {
+            this.permits = new Semaphore(maxConcurrent);
+            AtomicInteger counter = new AtomicInteger();
+            this.executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+                    new SynchronousQueue<>(), task -> {
+                        Thread thread = new Thread(task, "tool-" + group + "-" + counter.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+    }
+
+    /**
+     * 一次工具调用
+     * 在等待许可前登记，等待期间收到的取消同样生效.
+     * 许可由执行线程或取消方中先认领的一方释放：执行线程认领后在调用结束时释放，
+     * 调用尚未开始就被取消时由取消方释放，执行线程不再运行.
+     */
+    private static final class Call {
+
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private boolean cancelled;
+        private Semaphore permits;
+        private Future<Object> future;
+
+        /**
+         * 已持有许可时提交调用，已被取消则归还许可
+         */
+        synchronized Future<Object> start(Bulkhead bulkhead, Callable<Object> task) {
+            if (cancelled) {
+                bulkhead.permits.release();
+                throw new CancellationException();
+            }
+            permits = bulkhead.permits;
+            try {
+                future = bulkhead.executor.submit(() -> run(task));
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                throw e;
+            }
+            return future;
+        }
+
+        private Object run(Callable<Object> task) throws Exception {
+            if (!claimed.compareAndSet(false, true)) {
+                throw new CancellationException();
+            }
+            try {
+                return task.call();
+            } finally {
+                permits.release();
+            }
+        }
+
+        synchronized void cancel() {
+            cancelled = true;
+            if (future != null) {
+                future.cancel(true);
+                if (claimed.compareAndSet(false, true)) {
+                    permits.release();
+                }
+            }
+        }
+    }
+}
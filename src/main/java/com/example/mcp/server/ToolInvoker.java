@@ -0,0 +1,166 @@
+package com.example.mcp.server;
+
+import java.lang.invoke.*;
+import java.lang.reflect.*;
+import java.util.*;
+
+/**
+ * 预编译的工具调用器
+ * 注册时为每个 @Tool 方法构建一次 MethodHandle，参数转换器作为过滤器织入句柄，
+ * 调用时无需反射查找，基本类型参数直接从 Number 拆箱传入，不再经过 Object[] 装箱.
+ */
+final class ToolInvoker {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final int MAX_EXACT_ARITY = 4;
+
+    private final String[] paramNames;
+    private final boolean[] primitive;
+    private final MethodHandle handle;
+
+    private ToolInvoker(String[] paramNames, boolean[] primitive, MethodHandle handle) {
+        this.paramNames = paramNames;
+        this.primitive = primitive;
+        this.handle = handle;
+    }
+
+    /**
+     * 为工具方法构建调用器
+     * 句柄类型为 (Object, ..., Object)Object，参数超过 4 个时展开为 (Object[])Object
+     */
+    static ToolInvoker create(Object instance, Method method) {
+        Parameter[] params = method.getParameters();
+        String[] names = new String[params.length];
+        boolean[] primitive = new boolean[params.length];
+        MethodHandle[] converters = new MethodHandle[params.length];
+        for (int i = 0; i < params.length; i++) {
+            names[i] = params[i].getName();
+            primitive[i] = params[i].getType().isPrimitive();
+            converters[i] = converterFor(params[i].getType());
+        }
+
+        try {
+            MethodHandle target = MethodHandles.publicLookup().unreflect(method).bindTo(instance);
+            target = MethodHandles.filterArguments(target, 0, converters);
+            target = target.asType(MethodType.genericMethodType(params.length));
+            if (params.length > MAX_EXACT_ARITY) {
+                target = target.asSpreader(Object[].class, params.length);
+            }
+            return new ToolInvoker(names, primitive, target);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("无法访问工具方法: " + method, e);
+        }
+    }
+
+    Object invoke(Map<String, Object> args) throws Exception {
+        try {
+            return switch (paramNames.length) {
+                case 0 -> handle.invokeExact();
+                case 1 -> handle.invokeExact(arg(args, 0));
+                case 2 -> handle.invokeExact(arg(args, 0), arg(args, 1));
+                case 3 -> handle.invokeExact(arg(args, 0), arg(args, 1), arg(args, 2));
+                case 4 -> handle.invokeExact(arg(args, 0), arg(args, 1), arg(args, 2), arg(args, 3));
+                default -> {
+                    Object[] spread = new Object[paramNames.length];
+                    for (int i = 0; i < spread.length; i++) {
+                        spread[i] = arg(args, i);
+                    }
+                    yield handle.invokeExact(spread);
+                }
+            };
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new UndeclaredThrowableException(t);
+        }
+    }
+
+    private Object arg(Map<String, Object> args, int index) {
+        Object value = args.get(paramNames[index]);
+        if (value == null && primitive[index]) {
+            throw new IllegalArgumentException("缺少必填参数: " + paramNames[index]);
+        }
+        return value;
+    }
+
+    /**
+     * 按参数类型选择转换器，返回 (Object)T 形式的句柄
+     */
+    private static MethodHandle converterFor(Class<?> type) {
+        String name;
+        if (type == int.class) {
+            name = "toInt";
+        } else if (type == Integer.class) {
+            name = "toInteger";
+        } else if (type == long.class) {
+            name = "toPrimitiveLong";
+        } else if (type == Long.class) {
+            name = "toLong";
+        } else if (type == double.class) {
+            name = "toPrimitiveDouble";
+        } else if (type == Double.class) {
+            name = "toDouble";
+        } else if (type == boolean.class) {
+            name = "toPrimitiveBoolean";
+        } else if (type == Boolean.class) {
+            name = "toBoolean";
+        } else if (type == String.class) {
+            name = "toText";
+        } else {
+            return MethodHandles.identity(Object.class).asType(MethodType.methodType(type, Object.class));
+        }
+        try {
+            return LOOKUP.findStatic(ToolInvoker.class, name, MethodType.methodType(type, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("参数转换器缺失: " + type, e);
+        }
+    }
+
+    private static int toInt(Object value) {
+        return ((Number) value).intValue();
+    }
+
+    private static Integer toInteger(Object value) {
+        if (value == null || value instanceof Integer) {
+            return (Integer) value;
+        }
+        return ((Number) value).intValue();
+    }
+
+    private static long toPrimitiveLong(Object value) {
+        return ((Number) value).longValue();
+    }
+
+    private static Long toLong(Object value) {
+        if (value == null || value instanceof Long) {
+            return (Long) value;
+        }
+        return ((Number) value).longValue();
+    }
+
+    private static double toPrimitiveDouble(Object value) {
+        return ((Number) value).doubleValue();
+    }
+
+    private static Double toDouble(Object value) {
+        if (value == null || value instanceof Double) {
+            return (Double) value;
+        }
+        return ((Number) value).doubleValue();
+    }
+
+    private static boolean toPrimitiveBoolean(Object value) {
+        return value instanceof Boolean b ? b : Boolean.parseBoolean(value.toString());
+    }
+
+    private static Boolean toBoolean(Object value) {
+        if (value == null || value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        return Boolean.valueOf(value.toString());
+    }
+
+    private static String toText(Object value) {
+        return value == null || value instanceof String ? (String) value : value.toString();
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.mcp.server;
+
+import com.example.mcp.metrics.LatencyMetrics;
+import com.example.mcp.metrics.MetricsRegistry;
+import com.example.mcp.tools.*;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.*;
+import com.fasterxml.jackson.databind.util.RawValue;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+/**
+ * 工具注册表
+ * 工具定义（名称、描述、输入 schema 文本和分发器）来自编译期生成的 {@link GeneratedToolRegistry}，
+ * 注册时不做反射；只有运行时追加的、编译期未知的工具类才回退为反射解析 @Tool 方法.
+ * 缓存 tools/list 的完整结果（预序列化为 UTF-8 字节），仅在工具集合变化时重建.
+ */
+final class ToolRegistry {
+
+    private final ObjectMapper mapper;
+    private final MetricsRegistry metrics;
+    private final Map<String, ToolInfo> tools = new ConcurrentHashMap<>();
+    private final List<Runnable> listChangedListeners = new CopyOnWriteArrayList<>();
+    private volatile RawValue listResult;
+
+    ToolRegistry(ObjectMapper mapper, MetricsRegistry metrics) {
+        this.mapper = mapper;
+        this.metrics = metrics;
+    }
+
+    /**
+     * 注册编译期生成的工具定义，工具对象由 targets 按工具类提供（可以延迟创建），完成后重建一次列表缓存
+     */
+    void register(Collection<ToolDefinition> definitions, Function<Class<?>, Supplier<?>> targets) {
+        synchronized (this) {
+            Map<Class<?>, Supplier<?>> suppliers = new HashMap<>();
+            for (ToolDefinition definition : definitions) {
+                put(definition, suppliers.computeIfAbsent(definition.toolClass(), targets));
+            }
+            rebuildListing();
+        }
+        fireListChanged();
+    }
+
+    /**
+     * 注册若干工具对象的全部 @Tool 方法，完成后重建一次列表缓存
+     * 编译期已知的工具类直接使用生成的定义，其余回退为反射解析
+     */
+    void register(Object... toolObjs) {
+        synchronized (this) {
+            for (Object toolObj : toolObjs) {
+                // 延迟注入的工具是 CGLIB 代理，注解和名称取自原始类
+                Class<?> toolClass = ClassUtils.getUserClass(toolObj);
+                Supplier<?> target = () -> toolObj;
+                boolean generated = false;
+                for (ToolDefinition definition : GeneratedToolRegistry.definitions()) {
+                    if (definition.toolClass() == toolClass) {
+                        put(definition, target);
+                        generated = true;
+                    }
+                }
+                if (!generated) {
+                    registerReflectively(toolObj, toolClass, target);
+                }
+            }
+            rebuildListing();
+        }
+        fireListChanged();
+    }
+
+    private void put(ToolDefinition definition, Supplier<?> target) {
+        tools.put(definition.name(), new ToolInfo(definition.name(), definition.description(), definition.inputSchema(),
+                definition.cacheTtlSeconds(), definition.handler(), target,
+                metrics.metrics(MetricsRegistry.TOOL, definition.name())));
+    }
+
+    private void registerReflectively(Object toolObj, Class<?> toolClass, Supplier<?> target) {
+        for (Method method : toolClass.getDeclaredMethods()) {
+            Tool toolAnnotation = method.getAnnotation(Tool.class);
+            if (toolAnnotation != null) {
+                String toolName = (toolClass.getSimpleName().replace("Tools", "") + "_" + method.getName()).toLowerCase();
+                ToolInvoker invoker = ToolInvoker.create(toolObj, method);
+                String schema;
+                try {
+                    schema = mapper.writeValueAsString(createInputSchema(method));
+                } catch (JsonProcessingException e) {
+                    throw new IllegalStateException("序列化输入 schema 失败: " + toolName, e);
+                }
+                long cacheTtlSeconds = toolAnnotation.cacheable() ? toolAnnotation.cacheTtlSeconds() : 0;
+                put(new ToolDefinition(toolName, toolAnnotation.description(), schema, cacheTtlSeconds, toolClass,
+                        (instance, args) -> invoker.invoke(args)), target);
+            }
+        }
+    }
+
+    /**
+     * 移除指定工具
+     * @return 工具存在并被移除时返回 true
+     */
+    boolean unregister(String toolName) {
+        synchronized (this) {
+            if (tools.remove(toolName.toLowerCase()) == null) {
+                return false;
+            }
+            rebuildListing();
+        }
+        fireListChanged();
+        return true;
+    }
+
+    ToolInfo get(String toolName) {
+        return tools.get(toolName.toLowerCase());
+    }
+
+    int size() {
+        return tools.size();
+    }
+
+    /**
+     * tools/list 的 result 对象，序列化时直接写出缓存的字节
+     */
+    RawValue listResult() {
+        return listResult;
+    }
+
+    void onListChanged(Runnable listener) {
+        listChangedListeners.add(listener);
+    }
+
+    private void rebuildListing() {
+        List<Map<String, Object>> toolList = new ArrayList<>();
+        for (ToolInfo info : new TreeMap<>(tools).values()) {
+            Map<String, Object> tool = new LinkedHashMap<>();
+            tool.put("name", info.name());
+            tool.put("description", info.description());
+            tool.put("inputSchema", new RawValue(info.inputSchema()));
+            toolList.add(tool);
+        }
+        try {
+            listResult = new RawValue(new SerializedString(mapper.writeValueAsString(Map.of("tools", toolList))));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("序列化工具列表失败", e);
+        }
+    }
+
+    private void fireListChanged() {
+        for (Runnable listener : listChangedListeners) {
+            listener.run();
+        }
+    }
+
+    private Map<String, Object> createInputSchema(Method method) {
+        Map<String, Object> schema = new LinkedHashMap<>();
+        schema.put("type", "object");
+
+        Map<String, Object> properties = new LinkedHashMap<>();
+        List<String> required = new ArrayList<>();
+
+        for (Parameter param : method.getParameters()) {
+            ToolParam tp = param.getAnnotation(ToolParam.class);
+            String paramName = param.getName();
+
+            Map<String, Object> prop = new LinkedHashMap<>();
+            String type = getType(param.getType());
+            prop.put("type", type);
+            if ("array".equals(type)) {
+                prop.put("items", Map.of("type", getType(elementType(param))));
+            }
+            prop.put("description", tp != null ? tp.description() : paramName);
+            properties.put(paramName, prop);
+            if (tp == null || tp.required()) {
+                required.add(paramName);
+            }
+        }
+
+        schema.put("properties", properties);
+        if (!required.isEmpty()) {
+            schema.put("required", required);
+        }
+        return Collections.unmodifiableMap(schema);
+    }
+
+    private String getType(Class<?> clazz) {
+        if (clazz == int.class || clazz == Integer.class ||
+            clazz == long.class || clazz == Long.class ||
+            clazz == double.class || clazz == Double.class) {
+            return "number";
+        } else if (clazz == boolean.class || clazz == Boolean.class) {
+            return "boolean";
+        } else if (clazz.isArray() || Collection.class.isAssignableFrom(clazz)) {
+            return "array";
+        } else if (Map.class.isAssignableFrom(clazz)) {
+            return "object";
+        }
+        return "string";
+    }
+
+    /**
+     * 数组/集合参数的元素类型，无法确定时按字符串处理
+     */
+    private Class<?> elementType(Parameter param) {
+        if (param.getType().isArray()) {
+            return param.getType().getComponentType();
+        }
+        if (param.getParameterizedType() instanceof ParameterizedType pt) {
+            Type arg = pt.getActualTypeArguments()[0];
+            if (arg instanceof Class<?> c) {
+                return c;
+            }
+            if (arg instanceof ParameterizedType argType && argType.getRawType() instanceof Class<?> c) {
+                return c;
+            }
+        }
+        return String.class;
+    }
+
+    record ToolInfo(String name, String description, String inputSchema, long cacheTtlSeconds, ToolHandler handler,
+                    Supplier<?> target, LatencyMetrics metrics) {
+
+        Object call(Map<String, Object> args) throws Exception {
+            return handler.call(target.get(), args);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.mcp.server;
+
+import com.example.mcp.metrics.CacheMetrics;
+import com.example.mcp.metrics.MetricsRegistry;
+import com.github.benmanes.caffeine.cache.*;
+import org.springframework.core.env.Environment;
+
+import java.math.BigInteger;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * 可缓存工具（@Tool(cacheable = true)）的结果缓存
+ * 以工具名加规范化后的参数为键，W-TinyLFU 淘汰，容量按键和结果文本的字符数计，
+ * 每条记录按所属工具的 TTL 过期；只缓存正常返回的结果，抛出异常的调用不缓存.
+ * 缓存值是结果的 future，并发的相同调用只执行一次，其余调用等待同一个结果（计为命中）；
+ * 执行的调用被取消时，等待者不会收到取消，而是重新执行.
+ * <p>
+ * 规范化：参数按名称排序，整数值的浮点数与整数视为相同，字符串带长度前缀，
+ * 因此 {"a":1,"b":2} 与 {"b":2.0,"a":1} 命中同一条记录.
+ * TTL 默认取注解的 cacheTtlSeconds，可用 mcp.server.result-cache.ttl-seconds.&lt;工具名&gt; 覆盖.
+ */
+final class ToolResultCache {
+
+    private static final String TTL_PREFIX = "mcp.server.result-cache.ttl-seconds.";
+    /** 非字符串结果的估算权重 */
+    private static final int OBJECT_WEIGHT = 16;
+    private static final double MAX_EXACT_LONG = 0x1p53;
+    /** 执行者被取消时交给等待者的标记，记录此时已从缓存移除 */
+    private static final Entry CANCELLED = new Entry(null, 0);
+
+    private final boolean enabled;
+    private final Environment environment;
+    private final MetricsRegistry metrics;
+    private final AsyncCache<Key, Entry> cache;
+    private final Map<String, Long> ttlNanos = new ConcurrentHashMap<>();
+
+    ToolResultCache(Environment environment, MetricsRegistry metrics) {
+        this.environment = environment;
+        this.metrics = metrics;
+        this.enabled = environment.getProperty("mcp.server.result-cache.enabled", Boolean.class, true);
+        long maxWeight = environment.getProperty("mcp.server.result-cache.max-weight-chars", Long.class, 20_000_000L);
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((Key key, Entry entry) -> key.weight() + entry.weight())
+                .expireAfter(new Expiry<Key, Entry>() {
+                    @Override
+                    public long expireAfterCreate(Key key, Entry entry, long currentTime) {
+                        return entry.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Key key, Entry entry, long currentTime, long currentDuration) {
+                        return entry.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(Key key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .removalListener((Key key, Entry entry, RemovalCause cause) -> {
+                    if (key != null && cause.wasEvicted()) {
+                        metrics.cacheMetrics(key.tool()).recordEviction();
+                    }
+                })
+                .buildAsync();
+    }
+
+    /**
+     * 可缓存工具命中时直接返回缓存结果，否则执行 loader 并缓存其结果
+     */
+    Object get(ToolRegistry.ToolInfo info, Map<String, Object> args, Callable<Object> loader) throws Exception {
+        if (!enabled || info.cacheTtlSeconds() <= 0) {
+            return loader.call();
+        }
+        CacheMetrics stats = metrics.cacheMetrics(info.name());
+        Key key = new Key(info.name(), canonicalize(args));
+        while (true) {
+            CompletableFuture<Entry> created = new CompletableFuture<>();
+            CompletableFuture<Entry> existing = cache.asMap().putIfAbsent(key, created);
+            if (existing != null) {
+                Entry entry;
+                try {
+                    entry = existing.get();
+                } catch (ExecutionException e) {
+                    stats.recordHit();
+                    throw e.getCause() instanceof Exception cause ? cause : e;
+                }
+                if (entry == CANCELLED) {
+                    continue; // 执行者被取消，由本调用重新执行
+                }
+                stats.recordHit();
+                return entry == null ? null : entry.result();
+            }
+
+            stats.recordMiss();
+            try {
+                Object result = loader.call();
+                // 值为 null 时缓存会移除该记录
+                created.complete(result == null ? null : new Entry(result, ttlNanos(info)));
+                return result;
+            } catch (CancellationException | InterruptedException e) {
+                // 取消只属于本调用：先移除记录，再通知等待者各自重试，而不是把取消传给它们
+                cache.asMap().remove(key, created);
+                created.complete(CANCELLED);
+                throw e;
+            } catch (Exception | Error e) {
+                // 失败的 future 会被缓存自动移除
+                created.completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
+
+    private long ttlNanos(ToolRegistry.ToolInfo info) {
+        return ttlNanos.computeIfAbsent(info.name(), name -> TimeUnit.SECONDS.toNanos(
+                environment.getProperty(TTL_PREFIX + name, Long.class, info.cacheTtlSeconds())));
+    }
+
+    private static String canonicalize(Map<String, Object> args) {
+        StringBuilder sb = new StringBuilder();
+        appendMap(sb, args);
+        return sb.toString();
+    }
+
+    private static void appendMap(StringBuilder sb, Map<?, ?> map) {
+        List<Map.Entry<?, ?>> entries = new ArrayList<>(map.entrySet());
+        entries.sort(Comparator.comparing(e -> String.valueOf(e.getKey())));
+        sb.append('{');
+        for (Map.Entry<?, ?> e : entries) {
+            appendString(sb, String.valueOf(e.getKey()));
+            append(sb, e.getValue());
+        }
+        sb.append('}');
+    }
+
+    private static void append(StringBuilder sb, Object value) {
+        if (value == null) {
+            sb.append('n');
+        } else if (value instanceof String s) {
+            appendString(sb, s);
+        } else if (value instanceof Boolean b) {
+            sb.append(b ? 't' : 'f');
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short
+                || value instanceof Byte || value instanceof BigInteger) {
+            sb.append('i').append(value).append(';');
+        } else if (value instanceof Number n) {
+            double d = n.doubleValue();
+            if (d == Math.rint(d) && Math.abs(d) < MAX_EXACT_LONG) {
+                sb.append('i').append((long) d).append(';');
+            } else {
+                sb.append('d').append(d).append(';');
+            }
+        } else if (value instanceof Map<?, ?> map) {
+            appendMap(sb, map);
+        } else if (value instanceof Collection<?> list) {
+            sb.append('[');
+            for (Object element : list) {
+                append(sb, element);
+            }
+            sb.append(']');
+        } else {
+            appendString(sb, value.toString());
+        }
+    }
+
+    private static void appendString(StringBuilder sb, String s) {
+        sb.append('s').append(s.length()).append(':').append(s);
+    }
+
+    private record Key(String tool, String args) {
+
+        int weight() {
+            return tool.length() + args.length();
+        }
+    }
+
+    private record Entry(Object result, long ttlNanos) {
+
+        int weight() {
+            return result instanceof CharSequence text ? text.length() : OBJECT_WEIGHT;
+        }
+    }
+}
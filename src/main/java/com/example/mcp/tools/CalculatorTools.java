@@ -1,9 +1,18 @@
 package com.example.mcp.tools;
 
+import com.example.mcp.expr.CompiledExpression;
+import com.example.mcp.numeric.DoubleArrays;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
 /**
  * 计算器工具集
  * 提供基础数学运算功能
@@ -13,7 +22,20 @@ public class CalculatorTools {
 
     private static final Logger log = LoggerFactory.getLogger(CalculatorTools.class);
 
-    @Tool(description = "计算两个整数的加法运算")
+    /** 数组工具单个数组的元素数上限 */
+    private static final int MAX_ARRAY_LENGTH = 10_000_000;
+    private static final double[] DEFAULT_PERCENTILES = {50, 90, 95, 99};
+
+    /** 已编译表达式，键为表达式原文；同一表达式换变量取值时跳过解析和编译 */
+    private final Cache<String, CompiledExpression> expressions;
+
+    public CalculatorTools(@Value("${mcp.calculator.expression-cache-size:10000}") long expressionCacheSize) {
+        this.expressions = Caffeine.newBuilder()
+                .maximumSize(expressionCacheSize)
+                .build();
+    }
+
+    @Tool(description = "计算两个整数的加法运算", cacheable = true)
     public int add(
             @ToolParam(description = "第一个加数") int a,
             @ToolParam(description = "第二个加数") int b) {
@@ -21,7 +43,7 @@ public class CalculatorTools {
         return a + b;
     }
 
-    @Tool(description = "计算两个整数的减法运算")
+    @Tool(description = "计算两个整数的减法运算", cacheable = true)
     public int subtract(
             @ToolParam(description = "被减数") int a,
             @ToolParam(description = "减数") int b) {
@@ -29,7 +51,7 @@ public class CalculatorTools {
         return a - b;
     }
 
-    @Tool(description = "计算两个整数的乘法运算")
+    @Tool(description = "计算两个整数的乘法运算", cacheable = true)
     public int multiply(
             @ToolParam(description = "第一个乘数") int a,
             @ToolParam(description = "第二个乘数") int b) {
@@ -37,7 +59,7 @@ public class CalculatorTools {
         return a * b;
     }
 
-    @Tool(description = "计算两个数的除法运算，返回精确结果")
+    @Tool(description = "计算两个数的除法运算，返回精确结果", cacheable = true)
     public String divide(
             @ToolParam(description = "被除数") double a,
             @ToolParam(description = "除数，不能为零") double b) {
@@ -49,7 +71,7 @@ public class CalculatorTools {
         return String.format("%.4f", result);
     }
 
-    @Tool(description = "计算一个数的平方根")
+    @Tool(description = "计算一个数的平方根", cacheable = true)
     public String sqrt(@ToolParam(description = "要计算平方根的数，必须非负") double number) {
         log.info("执行平方根: sqrt({})", number);
         if (number < 0) {
@@ -58,11 +80,194 @@ public class CalculatorTools {
         return String.format("%.4f", Math.sqrt(number));
     }
 
-    @Tool(description = "计算一个数的幂运算")
+    @Tool(description = "计算一个数的幂运算", cacheable = true)
     public String power(
             @ToolParam(description = "底数") double base,
             @ToolParam(description = "指数") double exponent) {
         log.info("执行幂运算: {} ^ {}", base, exponent);
         return String.format("%.4f", Math.pow(base, exponent));
     }
+
+    @Tool(description = "计算算术表达式，支持 + - * / % ^、括号、变量、常量 pi 和 e，"
+            + "以及 sqrt、cbrt、abs、exp、ln、log10、log2、sin、cos、tan、asin、acos、atan、sinh、cosh、tanh、"
+            + "floor、ceil、round、sign、pow、atan2、hypot、min、max 等函数", cacheable = true)
+    public String evaluate(
+            @ToolParam(description = "表达式，如 2 * x ^ 2 + sin(pi / 4)") String expression,
+            @ToolParam(description = "变量取值，如 {\"x\": 3}，表达式不含变量时可省略", required = false) Map<String, Object> variables) {
+        log.info("执行表达式求值: {}", expression);
+        if (expression == null || expression.isBlank()) {
+            return "错误：表达式不能为空";
+        }
+        CompiledExpression compiled;
+        try {
+            compiled = expressions.get(expression, CompiledExpression::compile);
+        } catch (IllegalArgumentException e) {
+            return "错误：" + e.getMessage();
+        }
+        List<String> names = compiled.variables();
+        double[] values = new double[names.size()];
+        for (int i = 0; i < values.length; i++) {
+            Object value = variables == null ? null : variables.get(names.get(i));
+            if (value == null) {
+                return "错误：缺少变量 " + names.get(i) + " 的取值";
+            }
+            if (value instanceof Number number) {
+                values[i] = number.doubleValue();
+            } else {
+                try {
+                    values[i] = Double.parseDouble(value.toString().trim());
+                } catch (NumberFormatException e) {
+                    return "错误：变量 " + names.get(i) + " 不是有效的数字: " + value;
+                }
+            }
+        }
+        double result = compiled.evaluate(values);
+        if (Double.isNaN(result) || Double.isInfinite(result)) {
+            return "错误：计算结果无效（" + result + "），请检查除数是否为零或函数参数是否超出定义域";
+        }
+        return formatResult(result);
+    }
+
+    @Tool(description = "统计数值数组：数量、总和、平均值、最小值、最大值和总体标准差。"
+            + "数组以 JSON 数组 values 或 valuesBase64（小端序 double 的 base64）二选一传入")
+    public String arrayStatistics(
+            @ToolParam(description = "数值数组，与 valuesBase64 二选一", required = false) double[] values,
+            @ToolParam(description = "base64 编码的小端序 double 数组，与 values 二选一，大数组建议使用", required = false) String valuesBase64) {
+        try {
+            double[] data = array("values", values, valuesBase64);
+            log.info("执行数组统计: {} 个元素", data.length);
+            if (data.length == 0) {
+                return "错误：数组不能为空";
+            }
+            double sum = DoubleArrays.sum(data);
+            double mean = sum / data.length;
+            return "数量: " + data.length
+                    + "\n总和: " + formatResult(sum)
+                    + "\n平均值: " + formatResult(mean)
+                    + "\n最小值: " + formatResult(DoubleArrays.min(data))
+                    + "\n最大值: " + formatResult(DoubleArrays.max(data))
+                    + "\n标准差: " + formatResult(Math.sqrt(DoubleArrays.variance(data, mean)));
+        } catch (IllegalArgumentException e) {
+            return "错误：" + e.getMessage();
+        }
+    }
+
+    @Tool(description = "计算两个等长数值数组的点积，每个数组以 JSON 数组或 base64（小端序 double）二选一传入")
+    public String dotProduct(
+            @ToolParam(description = "第一个数组，与 aBase64 二选一", required = false) double[] a,
+            @ToolParam(description = "第一个数组的 base64 编码，与 a 二选一", required = false) String aBase64,
+            @ToolParam(description = "第二个数组，与 bBase64 二选一", required = false) double[] b,
+            @ToolParam(description = "第二个数组的 base64 编码，与 b 二选一", required = false) String bBase64) {
+        try {
+            double[] left = array("a", a, aBase64);
+            double[] right = array("b", b, bBase64);
+            log.info("执行点积: {} 个元素", left.length);
+            return formatResult(DoubleArrays.dot(left, right));
+        } catch (IllegalArgumentException e) {
+            return "错误：" + e.getMessage();
+        }
+    }
+
+    @Tool(description = "计算数值数组的百分位数（线性插值），数组以 JSON 数组或 base64（小端序 double）二选一传入")
+    public String percentiles(
+            @ToolParam(description = "数值数组，与 valuesBase64 二选一", required = false) double[] values,
+            @ToolParam(description = "base64 编码的小端序 double 数组，与 values 二选一", required = false) String valuesBase64,
+            @ToolParam(description = "要计算的百分位（0-100），默认 [50, 90, 95, 99]", required = false) double[] percentiles) {
+        try {
+            double[] data = array("values", values, valuesBase64);
+            double[] ranks = percentiles == null || percentiles.length == 0 ? DEFAULT_PERCENTILES : percentiles;
+            log.info("执行百分位数: {} 个元素, 百分位 {}", data.length, ranks.length);
+            double[] result = DoubleArrays.percentiles(data, ranks);
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < ranks.length; i++) {
+                sb.append(i == 0 ? "" : "\n").append("P").append(formatResult(ranks[i]))
+                        .append(": ").append(formatResult(result[i]));
+            }
+            return sb.toString();
+        } catch (IllegalArgumentException e) {
+            return "错误：" + e.getMessage();
+        }
+    }
+
+    @Tool(description = "数值数组逐元素运算（add、subtract、multiply、divide、min、max），"
+            + "a 与等长数组 b 或标量 scalar 运算；结果格式与 a 的输入格式一致（JSON 数组或 base64）")
+    public String arrayElementwise(
+            @ToolParam(description = "运算：add、subtract、multiply、divide、min、max") String operation,
+            @ToolParam(description = "左操作数数组，与 aBase64 二选一", required = false) double[] a,
+            @ToolParam(description = "左操作数数组的 base64 编码，与 a 二选一", required = false) String aBase64,
+            @ToolParam(description = "右操作数数组，与 bBase64、scalar 三选一", required = false) double[] b,
+            @ToolParam(description = "右操作数数组的 base64 编码，与 b、scalar 三选一", required = false) String bBase64,
+            @ToolParam(description = "右操作数标量，与 b、bBase64 三选一", required = false) Double scalar) {
+        try {
+            DoubleArrays.Operation op = operation(operation);
+            double[] left = array("a", a, aBase64);
+            double[] result;
+            if (scalar != null) {
+                if (b != null || bBase64 != null) {
+                    return "错误：b、bBase64 与 scalar 只能三选一";
+                }
+                result = DoubleArrays.elementwise(left, op, scalar);
+            } else {
+                result = DoubleArrays.elementwise(left, op, array("b", b, bBase64));
+            }
+            log.info("执行逐元素运算: {} {} 个元素", op, left.length);
+            return aBase64 != null ? DoubleArrays.toBase64(result) : toJson(result);
+        } catch (IllegalArgumentException e) {
+            return "错误：" + e.getMessage();
+        }
+    }
+
+    /**
+     * 整数结果不带小数点，其余按能还原该 double 的最短十进制输出
+     */
+    private static String formatResult(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    /**
+     * 取 JSON 数组或 base64 形式的数组参数，两者必须且只能提供一个
+     */
+    private static double[] array(String name, double[] values, String base64) {
+        if (values != null && base64 != null) {
+            throw new IllegalArgumentException(name + " 与 " + name + "Base64 只能二选一");
+        }
+        if (values == null && base64 == null) {
+            throw new IllegalArgumentException("缺少参数 " + name + " 或 " + name + "Base64");
+        }
+        if (base64 != null && base64.length() / 4L * 3 > (long) MAX_ARRAY_LENGTH * Double.BYTES + 3) {
+            throw new IllegalArgumentException(name + "Base64 超过 " + MAX_ARRAY_LENGTH + " 个元素");
+        }
+        double[] data = values != null ? values : DoubleArrays.fromBase64(base64);
+        if (data.length > MAX_ARRAY_LENGTH) {
+            throw new IllegalArgumentException(name + " 超过 " + MAX_ARRAY_LENGTH + " 个元素");
+        }
+        return data;
+    }
+
+    private static DoubleArrays.Operation operation(String name) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("缺少参数 operation");
+        }
+        try {
+            return DoubleArrays.Operation.valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("不支持的运算 " + name + "，可选 add、subtract、multiply、divide、min、max");
+        }
+    }
+
+    private static String toJson(double[] values) {
+        StringBuilder sb = new StringBuilder(values.length * 8 + 2).append('[');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            double value = values[i];
+            // JSON 不能表示 NaN 和无穷大
+            sb.append(Double.isFinite(value) ? formatResult(value) : "null");
+        }
+        return sb.append(']').toString();
+    }
 }
@@ -1,30 +1,50 @@
 package com.example.mcp.tools;
 
+import com.example.mcp.hash.HashAlgorithm;
+import com.example.mcp.hash.Hasher;
+import com.example.mcp.hash.Hex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Base64;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 
 /**
  * 加密工具集
  * 提供常用的加密和编码功能
+ * <p>
+ * 哈希按块流式计算：文本边编码为 UTF-8 边输入，文件通过 FileChannel 读入固定大小的直接缓冲区，
+ * 内存占用与输入大小无关.
  */
 @Component
 public class CryptoTools {
 
     private static final Logger log = LoggerFactory.getLogger(CryptoTools.class);
 
-    @Tool(description = "将文本进行 Base64 编码")
+    /** 文件读取缓冲区大小 */
+    private static final int FILE_BUFFER_SIZE = 1 << 20;
+    /** 文本编码缓冲区大小 */
+    private static final int TEXT_BUFFER_SIZE = 64 * 1024;
+
+    @Tool(description = "将文本进行 Base64 编码", cacheable = true)
     public String base64Encode(@ToolParam(description = "要编码的文本") String text) {
         log.info("Base64 编码");
         String encoded = Base64.getEncoder().encodeToString(text.getBytes());
         return "Base64 编码结果: " + encoded;
     }
 
-    @Tool(description = "将 Base64 文本解码")
+    @Tool(description = "将 Base64 文本解码", cacheable = true)
     public String base64Decode(@ToolParam(description = "要解码的 Base64 文本") String encodedText) {
         log.info("Base64 解码");
         try {
@@ -35,36 +55,75 @@ public class CryptoTools {
         }
     }
 
-    @Tool(description = "计算文本的 MD5 哈希值")
+    @Tool(description = "计算文本的 MD5 哈希值", cacheable = true)
     public String md5Hash(@ToolParam(description = "要计算哈希的文本") String text) {
-        log.info("计算 MD5");
-        try {
-            MessageDigest md = MessageDigest.getInstance("MD5");
-            byte[] digest = md.digest(text.getBytes());
-            StringBuilder sb = new StringBuilder();
-            for (byte b : digest) {
-                sb.append(String.format("%02x", b));
-            }
-            return "MD5 哈希: " + sb.toString();
-        } catch (NoSuchAlgorithmException e) {
-            return "错误：MD5 算法不可用";
+        if (text == null) {
+            return "错误：缺少要计算哈希的文本";
         }
+        log.info("计算 MD5");
+        return "MD5 哈希: " + hashText(text, HashAlgorithm.MD5);
     }
 
-    @Tool(description = "计算文本的 SHA-256 哈希值")
+    @Tool(description = "计算文本的 SHA-256 哈希值", cacheable = true)
     public String sha256Hash(@ToolParam(description = "要计算哈希的文本") String text) {
+        if (text == null) {
+            return "错误：缺少要计算哈希的文本";
+        }
         log.info("计算 SHA-256");
+        return "SHA-256 哈希: " + hashText(text, HashAlgorithm.SHA256);
+    }
+
+    @Tool(description = "用指定算法计算文本（UTF-8）的哈希值，支持 MD5、SHA-1、SHA-256、SHA-512、CRC32C、XXH64", cacheable = true)
+    public String hashText(
+            @ToolParam(description = "要计算哈希的文本") String text,
+            @ToolParam(description = "哈希算法，默认 SHA-256", required = false) String algorithm) {
+        if (text == null) {
+            return "错误：缺少要计算哈希的文本";
+        }
+        log.info("计算文本哈希, algorithm={}, length={}", algorithm, text.length());
+        HashAlgorithm hash;
         try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            byte[] digest = md.digest(text.getBytes());
-            StringBuilder sb = new StringBuilder();
-            for (byte b : digest) {
-                sb.append(String.format("%02x", b));
+            hash = HashAlgorithm.parse(algorithm);
+        } catch (IllegalArgumentException e) {
+            return "错误：" + e.getMessage();
+        }
+        return hash.displayName() + " 哈希: " + hashText(text, hash);
+    }
+
+    @Tool(description = "流式计算文件的哈希值（如附件校验），支持 MD5、SHA-1、SHA-256、SHA-512、CRC32C、XXH64，适用于大文件")
+    public String hashFile(
+            @ToolParam(description = "文件路径") String path,
+            @ToolParam(description = "哈希算法，默认 SHA-256", required = false) String algorithm) {
+        log.info("计算文件哈希, path={}, algorithm={}", path, algorithm);
+        if (path == null || path.isBlank()) {
+            return "错误：文件路径不能为空";
+        }
+        HashAlgorithm hash;
+        try {
+            hash = HashAlgorithm.parse(algorithm);
+        } catch (IllegalArgumentException e) {
+            return "错误：" + e.getMessage();
+        }
+        Path file = Path.of(path);
+        if (!Files.isRegularFile(file)) {
+            return "错误：文件不存在: " + path;
+        }
+
+        Hasher hasher = hash.newHasher();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(FILE_BUFFER_SIZE);
+        long size = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                size += buffer.remaining();
+                hasher.update(buffer);
+                buffer.clear();
             }
-            return "SHA-256 哈希: " + sb.toString();
-        } catch (NoSuchAlgorithmException e) {
-            return "错误：SHA-256 算法不可用";
+        } catch (IOException e) {
+            log.error("读取文件失败: {}", path, e);
+            return "错误：读取文件失败: " + e.getMessage();
         }
+        return hash.displayName() + " 哈希: " + Hex.encode(hasher.digest()) + "\n文件大小: " + size + " 字节";
     }
 
     @Tool(description = "生成简单的密码强度分析")
@@ -119,4 +178,31 @@ public class CryptoTools {
         analysis.append(String.format("\n综合评分: %d/7 - 强度: %s", score, strength));
         return analysis.toString();
     }
+
+    /**
+     * 分块编码为 UTF-8 并计算哈希，长文本不会一次性生成完整的字节数组
+     */
+    private static String hashText(String text, HashAlgorithm algorithm) {
+        Hasher hasher = algorithm.newHasher();
+        // 与 String.getBytes 一致，无法编码的字符（孤立代理项）替换为 '?'
+        CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        CharBuffer chars = CharBuffer.wrap(text);
+        ByteBuffer bytes = ByteBuffer.allocate((int) Math.min(TEXT_BUFFER_SIZE, (long) text.length() * 3 + 16));
+        CoderResult result;
+        do {
+            result = encoder.encode(chars, bytes, true);
+            bytes.flip();
+            hasher.update(bytes);
+            bytes.clear();
+        } while (result.isOverflow());
+        do {
+            result = encoder.flush(bytes);
+            bytes.flip();
+            hasher.update(bytes);
+            bytes.clear();
+        } while (result.isOverflow());
+        return Hex.encode(hasher.digest());
+    }
 }
@@ -0,0 +1,23 @@
+package com.example.mcp.tools;
+
+import com.example.mcp.metrics.MetricsRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * 指标工具集
+ * 查看各工具和数据库操作的调用次数、错误率与延迟分位数
+ */
+@Component
+public class MetricsTools {
+
+    private final MetricsRegistry metricsRegistry;
+
+    public MetricsTools(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    @Tool(description = "获取各工具调用和数据库操作的指标快照：调用次数、错误率、并发数、吞吐量及 p50/p99/p999/最大延迟")
+    public String snapshot() {
+        return metricsRegistry.snapshot();
+    }
+}
@@ -2,6 +2,7 @@ package com.example.mcp.tools;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.Random;
@@ -15,21 +16,28 @@ public class StringTools {
 
     private static final Logger log = LoggerFactory.getLogger(StringTools.class);
 
-    @Tool(description = "将文本转换为大写")
+    /** 日志中输入文本最多保留的字符数，避免在请求线程上格式化整段长文本 */
+    private final int maxLoggedChars;
+
+    public StringTools(@Value("${mcp.logging.max-payload-chars:200}") int maxLoggedChars) {
+        this.maxLoggedChars = Math.max(0, maxLoggedChars);
+    }
+
+    @Tool(description = "将文本转换为大写", cacheable = true)
     public String toUpperCase(@ToolParam(description = "要转换的文本") String text) {
-        log.info("转大写: {}", text);
+        log.info("转大写: {}", abbreviate(text));
         return text.toUpperCase();
     }
 
-    @Tool(description = "将文本转换为小写")
+    @Tool(description = "将文本转换为小写", cacheable = true)
     public String toLowerCase(@ToolParam(description = "要转换的文本") String text) {
-        log.info("转小写: {}", text);
+        log.info("转小写: {}", abbreviate(text));
         return text.toLowerCase();
     }
 
-    @Tool(description = "计算文本的字符数量")
+    @Tool(description = "计算文本的字符数量", cacheable = true)
     public String countCharacters(@ToolParam(description = "要统计的文本") String text) {
-        log.info("统计字符数: {}", text);
+        log.info("统计字符数: {}", abbreviate(text));
         int charCount = text.length();
         int charCountNoSpace = text.replace(" ", "").length();
         int wordCount = text.isEmpty() ? 0 : text.trim().split("\\s+").length;
@@ -37,9 +45,9 @@ public class StringTools {
                 charCount, charCountNoSpace, wordCount);
     }
 
-    @Tool(description = "反转文本")
+    @Tool(description = "反转文本", cacheable = true)
     public String reverseText(@ToolParam(description = "要反转的文本") String text) {
-        log.info("反转文本: {}", text);
+        log.info("反转文本: {}", abbreviate(text));
         return new StringBuilder(text).reverse().toString();
     }
 
@@ -59,12 +67,23 @@ public class StringTools {
         return "随机字符串: " + sb.toString();
     }
 
-    @Tool(description = "检查字符串是否为回文")
+    @Tool(description = "检查字符串是否为回文", cacheable = true)
     public String checkPalindrome(@ToolParam(description = "要检查的文本") String text) {
-        log.info("检查回文: {}", text);
+        log.info("检查回文: {}", abbreviate(text));
         String cleaned = text.toLowerCase().replaceAll("[^a-z0-9]", "");
         String reversed = new StringBuilder(cleaned).reverse().toString();
         boolean isPalindrome = cleaned.equals(reversed);
         return String.format("文本 \"%s\" %s回文", text, isPalindrome ? "是" : "不是");
     }
+
+    private String abbreviate(String text) {
+        if (text == null || text.length() <= maxLoggedChars) {
+            return text;
+        }
+        int end = maxLoggedChars;
+        if (end > 0 && Character.isHighSurrogate(text.charAt(end - 1))) {
+            end--;
+        }
+        return text.substring(0, end) + "...(共 " + text.length() + " 字符)";
+    }
 }
@@ -1,62 +1,212 @@
 package com.example.mcp.tools;
 
+import com.example.mcp.persistence.AttachmentWriteBehind;
+import com.example.mcp.metrics.MetricsRegistry;
+import com.example.mcp.persistence.IssueCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Component;
-
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 
 /**
  * 系统日志工具集
  * 提供氧屋系统问题日志查询、保存和更新功能
+ * <p>
+ * 待处理问题以领取队列的方式分发：在一个事务内用 FOR UPDATE SKIP LOCKED 锁定若干条记录
+ * 并将其置为处理中(status=2)，多个工作者并发领取时互不阻塞、也不会重复领取同一条记录.
+ * 领取带有租约，租约到期仍未完成的记录可被重新领取. 领取事务使用 READ COMMITTED 隔离级别，
+ * 所需字段、索引和隔离级别说明见 sql/system_issue_log_claim.sql
+ * <p>
+ * 按ID读取的问题日志文档和附件路径经 {@link IssueCache} 读穿缓存，写操作按ID失效.
  */
 @Component
 public class SystemLogTools {
 
     private static final Logger log = LoggerFactory.getLogger(SystemLogTools.class);
-    private final JdbcTemplate jdbcTemplate;
 
-    public SystemLogTools(JdbcTemplate jdbcTemplate) {
+    /** 单次最多领取的记录数 */
+    private static final int MAX_CLAIM_COUNT = 100;
+
+    /**
+     * 新记录和租约到期的记录分两条语句领取：单一等值条件下 MySQL 可以按
+     * idx_issue_log_status_created 的顺序扫描并在取满 LIMIT 后停止，
+     * 合成一条 OR 条件则需要读出全部候选行再排序，FOR UPDATE 会把整个积压队列锁住
+     */
+    private static final String CLAIM_COLUMNS =
+            "SELECT id, type, create_table_sql, before_transformation, " +
+            "transformation, business_context, status, new_requirement " +
+            "FROM system_issue_log ";
+
+    private static final String CLAIM_NEW_SQL = CLAIM_COLUMNS +
+            "WHERE status = 1 " +
+            "ORDER BY created_at ASC LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String CLAIM_EXPIRED_SQL = CLAIM_COLUMNS +
+            "WHERE status = 2 AND lease_expires_at < NOW() " +
+            "ORDER BY created_at ASC LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String INSERT_ISSUE_LOG_SQL =
+            "INSERT INTO system_issue_log " +
+            "(id, type, description, remark, create_table_sql, new_requirement, " +
+            "before_transformation, transformation, business_context, status, creator) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 1, ?)";
+
+    private static final String INSERT_ATTACHMENT_SQL =
+            "INSERT INTO sys_attachment " +
+            "(id, target_id, file_path, file_name, type, sort_order, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, NOW())";
+
+    /** 列表分页的默认和最大页大小 */
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+
+    /** 列表中描述字段的最大展示长度 */
+    private static final int SUMMARY_LENGTH = 100;
+
+    /** 单次批量保存最多的记录数 */
+    private static final int MAX_BATCH_RECORDS = 5000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    /** 领取专用事务，READ COMMITTED 下扫描到但不满足条件的行（如租约未到期）不会一直持锁 */
+    private final TransactionTemplate claimTransaction;
+    private final AttachmentWriteBehind attachmentWriteBehind;
+    private final IssueCache issueCache;
+    private final MetricsRegistry metrics;
+    private final int defaultLeaseSeconds;
+    private final String defaultWorkerId;
+    private final int batchChunkSize;
+
+    public SystemLogTools(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                          AttachmentWriteBehind attachmentWriteBehind, IssueCache issueCache, MetricsRegistry metrics,
+                          @Value("${mcp.systemlog.claim.lease-seconds:1800}") int defaultLeaseSeconds,
+                          @Value("${mcp.systemlog.batch.chunk-size:500}") int batchChunkSize) {
         this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.claimTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.claimTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.attachmentWriteBehind = attachmentWriteBehind;
+        this.issueCache = issueCache;
+        this.metrics = metrics;
+        this.defaultLeaseSeconds = defaultLeaseSeconds;
+        this.defaultWorkerId = "mcp-" + ProcessHandle.current().pid();
+        this.batchChunkSize = Math.max(1, batchChunkSize);
     }
 
-    @Tool(description = "获取氧屋系统最早的1条问题日志")
+    @Tool(description = "领取氧屋系统最早的1条待处理问题日志，领取后状态变为处理中")
     public String getSystemLog() {
-        log.info("查询最早的待处理问题日志");
+        log.info("领取最早的待处理问题日志");
+
+        try {
+            List<IssueLog> claimed = claimIssues(1, defaultLeaseSeconds, defaultWorkerId);
+            if (claimed.isEmpty()) {
+                return "未找到待处理的问题日志。";
+            }
+            return renderIssues(claimed, false);
+        } catch (Exception e) {
+            log.error("领取问题日志失败", e);
+            return "查询失败：" + e.getMessage();
+        }
+    }
 
-        String issueLogSql = "SELECT id, type, create_table_sql, before_transformation, " +
-                             "transformation, business_context, status, new_requirement " +
-                             "FROM system_issue_log WHERE status = 1 ORDER BY created_at ASC LIMIT 1";
+    @Tool(description = "批量领取氧屋系统待处理问题日志，领取后状态变为处理中，租约到期未完成的记录可被重新领取")
+    public String claimSystemLogs(
+        @ToolParam(description = "领取数量，1-100，默认1", required = false) Integer count,
+        @ToolParam(description = "租约时长（秒），默认1800", required = false) Integer leaseSeconds,
+        @ToolParam(description = "领取者标识（非必填）", required = false) String workerId
+    ) {
+        int limit = count == null ? 1 : count;
+        if (limit < 1 || limit > MAX_CLAIM_COUNT) {
+            return "错误：领取数量必须在 1-" + MAX_CLAIM_COUNT + " 之间";
+        }
+        int lease = leaseSeconds == null || leaseSeconds <= 0 ? defaultLeaseSeconds : leaseSeconds;
+        String worker = workerId == null || workerId.isBlank() ? defaultWorkerId : workerId;
+        log.info("批量领取问题日志, count={}, leaseSeconds={}, worker={}", limit, lease, worker);
 
         try {
-            return jdbcTemplate.query(issueLogSql, rs -> {
-                if (rs.next()) {
-                    String id = rs.getString("id");
-                    String type = rs.getString("type");
-                    String createTableSql = rs.getString("create_table_sql");
-                    String beforeTransformation = rs.getString("before_transformation");
-                    String transformation = rs.getString("transformation");
-                    String businessContext = rs.getString("business_context");
-                    String status = rs.getString("status");
-                    String newRequirement = rs.getString("new_requirement");
-
-                    // 查询关联的附件
-                    List<String> attachmentPaths = queryAttachmentPaths(id);
-
-                    // 构建返回结果
-                    return buildResultXml(id, type, createTableSql, beforeTransformation,
-                                          transformation, businessContext, status, newRequirement, attachmentPaths);
-                }
+            List<IssueLog> claimed = claimIssues(limit, lease, worker);
+            if (claimed.isEmpty()) {
                 return "未找到待处理的问题日志。";
-            });
+            }
+            return renderIssues(claimed, true);
         } catch (Exception e) {
-            log.error("查询问题日志失败", e);
+            log.error("批量领取问题日志失败", e);
             return "查询失败：" + e.getMessage();
         }
     }
 
+    /**
+     * 在一个事务内锁定并领取若干条待处理记录，先取新记录，不足时再取租约到期的记录
+     * SKIP LOCKED 跳过其他事务正在领取的行，因此并发领取不会互相等待或重复
+     */
+    private List<IssueLog> claimIssues(int count, int leaseSeconds, String workerId) {
+        List<IssueLog> claimed = metrics.timeJdbc("claim", () -> claimTransaction.execute(tx -> {
+            List<IssueLog> rows = new ArrayList<>(lockForClaim(CLAIM_NEW_SQL, count));
+            if (rows.size() < count) {
+                rows.addAll(lockForClaim(CLAIM_EXPIRED_SQL, count - rows.size()));
+            }
+            if (rows.isEmpty()) {
+                return rows;
+            }
+
+            List<Object> args = new ArrayList<>(rows.size() + 2);
+            args.add(workerId);
+            args.add(leaseSeconds);
+            for (IssueLog row : rows) {
+                args.add(row.id());
+            }
+            jdbcTemplate.update("UPDATE system_issue_log SET status = 2, claimed_by = ?, " +
+                                "lease_expires_at = TIMESTAMPADD(SECOND, ?, NOW()) " +
+                                "WHERE id IN (" + placeholders(rows.size()) + ")", args.toArray());
+            return rows;
+        }));
+        if (claimed == null) {
+            return Collections.emptyList();
+        }
+        // 领取改变了状态，已缓存的文档失效
+        for (IssueLog issue : claimed) {
+            issueCache.invalidate(issue.id());
+        }
+        return claimed;
+    }
+
+    private List<IssueLog> lockForClaim(String sql, int count) {
+        return jdbcTemplate.query(sql,
+            ps -> ps.setInt(1, count),
+            (rs, rowNum) -> new IssueLog(
+                rs.getString("id"),
+                rs.getString("type"),
+                rs.getString("create_table_sql"),
+                rs.getString("before_transformation"),
+                rs.getString("transformation"),
+                rs.getString("business_context"),
+                "2",
+                rs.getString("new_requirement")));
+    }
+
     @Tool(description = "保存系统问题日志到数据库")
     public String saveSystemLog(
         @ToolParam(description = "类型：1.bug修复 2.新功能开发 3.原有功能改造 4.页面原型快速实现") Integer type,
@@ -74,13 +224,8 @@ public class SystemLogTools {
         // 生成UUID作为主键
         String id = UUID.randomUUID().toString();
 
-        String sql = "INSERT INTO system_issue_log " +
-                     "(id, type, description, remark, create_table_sql, new_requirement, " +
-                     "before_transformation, transformation, business_context, status, creator) " +
-                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 1, ?)";
-
         try {
-            int rows = jdbcTemplate.update(sql,
+            int rows = metrics.timeJdbc("insertIssueLog", () -> jdbcTemplate.update(INSERT_ISSUE_LOG_SQL,
                 id,
                 type,
                 description,
@@ -91,7 +236,7 @@ public class SystemLogTools {
                 transformation,
                 businessContext,
                 creator
-            );
+            ));
 
             if (rows > 0) {
                 return "保存成功，ID: " + id;
@@ -104,11 +249,156 @@ public class SystemLogTools {
         }
     }
 
+    @Tool(description = "按状态、类型、创建人分页列出系统问题日志，按创建时间升序，返回下一页游标")
+    public String listSystemLogs(
+        @ToolParam(description = "状态过滤（非必填）：1.待处理 2.处理中 3.已完成 4.处理失败", required = false) Integer status,
+        @ToolParam(description = "类型过滤（非必填）：1.bug修复 2.新功能开发 3.原有功能改造 4.页面原型快速实现", required = false) Integer type,
+        @ToolParam(description = "创建人过滤（非必填）", required = false) String creator,
+        @ToolParam(description = "每页条数，1-500，默认50", required = false) Integer pageSize,
+        @ToolParam(description = "上一页返回的游标，首页不传", required = false) String cursor
+    ) {
+        int limit = pageSize == null ? DEFAULT_PAGE_SIZE : pageSize;
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return "错误：每页条数必须在 1-" + MAX_PAGE_SIZE + " 之间";
+        }
+        log.info("分页列出问题日志, status={}, type={}, creator={}, pageSize={}", status, type, creator, limit);
+
+        PageCursor after;
+        try {
+            after = PageCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return "错误：无效的游标";
+        }
+
+        // 键集分页：按 (created_at, id) 定位上一页末尾，深分页与首页代价相同
+        StringBuilder sql = new StringBuilder(
+            "SELECT id, type, status, creator, created_at, description FROM system_issue_log WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (status != null) {
+            sql.append(" AND status = ?");
+            args.add(status);
+        }
+        if (type != null) {
+            sql.append(" AND type = ?");
+            args.add(type);
+        }
+        if (creator != null && !creator.isBlank()) {
+            sql.append(" AND creator = ?");
+            args.add(creator);
+        }
+        // created_at 可为 NULL，升序时 NULL 行排在最前（MySQL 和 H2 的默认顺序），按 id 逐行推进后再进入非 NULL 部分
+        if (after != null && after.createdAt() == null) {
+            sql.append(" AND (created_at IS NOT NULL OR id > ?)");
+            args.add(after.id());
+        } else if (after != null) {
+            sql.append(" AND (created_at > ? OR (created_at = ? AND id > ?))");
+            args.add(after.createdAt());
+            args.add(after.createdAt());
+            args.add(after.id());
+        }
+        // 多取一行用于判断是否还有下一页
+        sql.append(" ORDER BY created_at ASC, id ASC LIMIT ?");
+        args.add(limit + 1);
+
+        StringBuilder sb = new StringBuilder("问题日志列表:\n");
+        int[] count = {0};
+        PageCursor[] last = {null};
+        boolean[] hasMore = {false};
+        try {
+            metrics.runJdbc("listIssueLogs", () -> jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(sql.toString(),
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                // MySQL 驱动以 Integer.MIN_VALUE 作为逐行流式读取的标志，大字段不会整页驻留内存；其他驱动不接受负值
+                if ("MySQL".equals(con.getMetaData().getDatabaseProductName())) {
+                    ps.setFetchSize(Integer.MIN_VALUE);
+                }
+                for (int i = 0; i < args.size(); i++) {
+                    ps.setObject(i + 1, args.get(i));
+                }
+                return ps;
+            }, (RowCallbackHandler) rs -> {
+                if (count[0] == limit) {
+                    hasMore[0] = true;
+                    return;
+                }
+                count[0]++;
+                String id = rs.getString("id");
+                Timestamp createdAt = rs.getTimestamp("created_at");
+                last[0] = new PageCursor(createdAt, id);
+                sb.append("- ID: ").append(id)
+                  .append(", 类型: ").append(nullToEmpty(rs.getString("type")))
+                  .append(", 状态: ").append(nullToEmpty(rs.getString("status")))
+                  .append(", 创建人: ").append(nullToEmpty(rs.getString("creator")))
+                  .append(", 创建时间: ").append(createdAt)
+                  .append(", 描述: ").append(summarize(rs.getString("description")))
+                  .append("\n");
+            }));
+        } catch (Exception e) {
+            log.error("分页列出问题日志失败", e);
+            return "查询失败：" + e.getMessage();
+        }
+
+        if (count[0] == 0) {
+            return "未找到符合条件的问题日志。";
+        }
+        sb.append("本页 ").append(count[0]).append(" 条");
+        if (hasMore[0]) {
+            sb.append("，下一页游标: ").append(last[0].encode());
+        } else {
+            sb.append("，已是最后一页");
+        }
+        return sb.toString();
+    }
+
+    @Tool(description = "根据ID查询系统问题日志及其附件（不改变状态）")
+    public String getSystemLogById(@ToolParam(description = "问题日志ID") String id) {
+        log.info("查询问题日志, id={}", id);
+
+        try {
+            String document = issueCache.document(id, this::loadIssueDocument);
+            return document != null ? document : "未找到ID为 " + id + " 的问题日志";
+        } catch (Exception e) {
+            log.error("查询问题日志失败", e);
+            return "查询失败：" + e.getMessage();
+        }
+    }
+
+    @Tool(description = "查看问题日志缓存的命中率、未命中数、淘汰数和当前条目数")
+    public String getCacheStats() {
+        return "问题日志文档缓存 - " + formatStats(issueCache.documentStats(), issueCache.documentCount()) + "\n" +
+               "附件路径缓存 - " + formatStats(issueCache.attachmentStats(), issueCache.attachmentCount());
+    }
+
+    private String formatStats(CacheStats stats, long size) {
+        return String.format("条目数: %d, 命中: %d, 未命中: %d, 命中率: %.2f%%, 淘汰: %d",
+                size, stats.hitCount(), stats.missCount(), stats.hitRate() * 100, stats.evictionCount());
+    }
+
+    /**
+     * 缓存未命中时加载单条问题日志并渲染，记录不存在时返回 null
+     */
+    private String loadIssueDocument(String id) {
+        List<IssueLog> rows = metrics.timeJdbc("loadIssueDocument", () -> jdbcTemplate.query(
+            "SELECT id, type, create_table_sql, before_transformation, transformation, " +
+            "business_context, status, new_requirement FROM system_issue_log WHERE id = ?",
+            (rs, rowNum) -> new IssueLog(
+                rs.getString("id"),
+                rs.getString("type"),
+                rs.getString("create_table_sql"),
+                rs.getString("before_transformation"),
+                rs.getString("transformation"),
+                rs.getString("business_context"),
+                rs.getString("status"),
+                rs.getString("new_requirement")),
+            id));
+        return rows.isEmpty() ? null : renderIssues(rows, false);
+    }
+
     @Tool(description = "更新系统问题日志的状态和描述")
     public String updateSystemLog(
         @ToolParam(description = "问题日志ID") String id,
         @ToolParam(description = "状态：1.待处理 2.处理中 3.已完成 4.处理失败") Integer status,
-        @ToolParam(description = "问题详细描述（非必填，不传则不更新）") String description
+        @ToolParam(description = "问题详细描述（非必填，不传则不更新）", required = false) String description
     ) {
         log.info("更新系统问题日志, id={}, status={}", id, status);
 
@@ -117,12 +407,13 @@ public class SystemLogTools {
             if (description != null) {
                 // 同时更新 status 和 description
                 String sql = "UPDATE system_issue_log SET status = ?, description = ? WHERE id = ?";
-                rows = jdbcTemplate.update(sql, status, description, id);
+                rows = metrics.timeJdbc("updateIssueLog", () -> jdbcTemplate.update(sql, status, description, id));
             } else {
                 // 只更新 status
                 String sql = "UPDATE system_issue_log SET status = ? WHERE id = ?";
-                rows = jdbcTemplate.update(sql, status, id);
+                rows = metrics.timeJdbc("updateIssueLog", () -> jdbcTemplate.update(sql, status, id));
             }
+            issueCache.invalidate(id);
 
             if (rows > 0) {
                 return "更新成功，影响记录数: " + rows;
@@ -140,34 +431,41 @@ public class SystemLogTools {
         @ToolParam(description = "关联的目标ID") String targetId,
         @ToolParam(description = "文件路径") String filePath,
         @ToolParam(description = "文件名称") String fileName,
-        @ToolParam(description = "排序顺序，默认为0") Integer sortOrder
+        @ToolParam(description = "排序顺序，默认为0", required = false) Integer sortOrder
     ) {
         log.info("保存系统附件, targetId={}, fileName={}", targetId, fileName);
 
-        // 生成UUID作为主键
-        String id = UUID.randomUUID().toString();
-
-        // type 固定为 2
-        Integer type = 2;
-
         // 如果 sortOrder 为 null，默认为 0
         if (sortOrder == null) {
             sortOrder = 0;
         }
 
-        String sql = "INSERT INTO sys_attachment " +
-                     "(id, target_id, file_path, file_name, type, sort_order, created_at) " +
-                     "VALUES (?, ?, ?, ?, ?, ?, NOW())";
+        // 开启写后缓冲时先入队并立即返回ID，由后台组提交；队列已满时退回同步写入
+        if (attachmentWriteBehind.isEnabled()) {
+            String bufferedId = attachmentWriteBehind.enqueue(targetId, filePath, fileName, sortOrder);
+            if (bufferedId != null) {
+                issueCache.invalidate(targetId);
+                return "保存成功，附件ID: " + bufferedId;
+            }
+        }
+
+        // 生成UUID作为主键
+        String id = UUID.randomUUID().toString();
+
+        // type 固定为 2
+        Integer type = 2;
 
         try {
-            int rows = jdbcTemplate.update(sql,
+            int order = sortOrder;
+            int rows = metrics.timeJdbc("insertAttachment", () -> jdbcTemplate.update(INSERT_ATTACHMENT_SQL,
                 id,
                 targetId,
                 filePath,
                 fileName,
                 type,
-                sortOrder
-            );
+                order
+            ));
+            issueCache.invalidate(targetId);
 
             if (rows > 0) {
                 return "保存成功，附件ID: " + id;
@@ -180,28 +478,219 @@ public class SystemLogTools {
         }
     }
 
+    @Tool(description = "批量保存系统问题日志到数据库，在一个事务内分批写入，返回每条记录的ID或失败原因")
+    public String saveSystemLogs(
+        @ToolParam(description = "问题日志数组，每项包含 type, description, remark, createTableSql, newRequirement, " +
+                                 "beforeTransformation, transformation, businessContext, creator") List<Map<String, Object>> logs
+    ) {
+        log.info("批量保存系统问题日志, count={}", logs == null ? 0 : logs.size());
+        return batchInsert(INSERT_ISSUE_LOG_SQL, logs, record -> new Object[] {
+            UUID.randomUUID().toString(),
+            requireInteger(record, "type"),
+            text(record, "description"),
+            text(record, "remark"),
+            text(record, "createTableSql"),
+            text(record, "newRequirement"),
+            text(record, "beforeTransformation"),
+            text(record, "transformation"),
+            text(record, "businessContext"),
+            text(record, "creator")
+        });
+    }
+
+    @Tool(description = "批量保存系统附件信息到数据库，在一个事务内分批写入，返回每条记录的ID或失败原因")
+    public String saveSystemAttachments(
+        @ToolParam(description = "附件数组，每项包含 targetId, filePath, fileName, sortOrder（默认0）") List<Map<String, Object>> attachments
+    ) {
+        log.info("批量保存系统附件, count={}", attachments == null ? 0 : attachments.size());
+        Set<String> targetIds = new HashSet<>();
+        String result = batchInsert(INSERT_ATTACHMENT_SQL, attachments, record -> {
+            Integer sortOrder = integer(record, "sortOrder");
+            String targetId = requireText(record, "targetId");
+            Object[] args = {
+                UUID.randomUUID().toString(),
+                targetId,
+                requireText(record, "filePath"),
+                text(record, "fileName"),
+                2,
+                sortOrder == null ? 0 : sortOrder
+            };
+            targetIds.add(targetId);
+            return args;
+        });
+        issueCache.invalidateAll(targetIds);
+        return result;
+    }
+
     /**
-     * 查询关联的附件路径列表
-     * @param targetId 关联的目标ID (system_issue_log的id)
-     * @return 附件路径列表
+     * 批量插入：先逐条校验，再在一个事务内按 chunk-size 分批 batchUpdate.
+     * 数据库出错时整个事务回滚，所有有效记录都按失败报告.
+     * @param toArgs 记录到 SQL 参数的转换，第一个参数必须是生成的主键，校验失败时抛出 IllegalArgumentException
      */
-    private List<String> queryAttachmentPaths(String targetId) {
-        String attachmentSql = "SELECT file_path FROM sys_attachment " +
-                               "WHERE target_id = ? AND type = 1 " +
-                               "ORDER BY sort_order ASC";
-
-        return jdbcTemplate.query(attachmentSql,
-            ps -> ps.setString(1, targetId),
-            (rs, rowNum) -> rs.getString("file_path"));
+    private String batchInsert(String sql, List<Map<String, Object>> records,
+                               Function<Map<String, Object>, Object[]> toArgs) {
+        if (records == null || records.isEmpty()) {
+            return "错误：记录列表不能为空";
+        }
+        if (records.size() > MAX_BATCH_RECORDS) {
+            return "错误：单次最多保存 " + MAX_BATCH_RECORDS + " 条记录";
+        }
+
+        String[] outcomes = new String[records.size()];
+        List<Object[]> batchArgs = new ArrayList<>(records.size());
+        List<Integer> batchIndexes = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            try {
+                batchArgs.add(toArgs.apply(records.get(i)));
+                batchIndexes.add(i);
+            } catch (IllegalArgumentException | ClassCastException e) {
+                outcomes[i] = "失败 - " + e.getMessage();
+            }
+        }
+
+        if (!batchArgs.isEmpty()) {
+            try {
+                metrics.runJdbc("batchInsert", () -> transactionTemplate.executeWithoutResult(tx -> {
+                    for (int from = 0; from < batchArgs.size(); from += batchChunkSize) {
+                        int to = Math.min(from + batchChunkSize, batchArgs.size());
+                        int[] counts = jdbcTemplate.batchUpdate(sql, batchArgs.subList(from, to));
+                        for (int j = 0; j < counts.length; j++) {
+                            int index = from + j;
+                            outcomes[batchIndexes.get(index)] = counts[j] == 0
+                                ? "失败 - 未插入任何记录"
+                                : "成功，ID: " + batchArgs.get(index)[0];
+                        }
+                    }
+                }));
+            } catch (Exception e) {
+                log.error("批量保存失败，事务已回滚", e);
+                for (int index : batchIndexes) {
+                    outcomes[index] = "失败 - 事务已回滚：" + e.getMessage();
+                }
+            }
+        }
+
+        int succeeded = 0;
+        StringBuilder details = new StringBuilder();
+        for (int i = 0; i < outcomes.length; i++) {
+            if (outcomes[i].startsWith("成功")) {
+                succeeded++;
+            }
+            details.append("第").append(i + 1).append("条: ").append(outcomes[i]).append("\n");
+        }
+        return "批量保存完成：成功 " + succeeded + " 条，失败 " + (outcomes.length - succeeded) + " 条\n" + details;
+    }
+
+    private static String text(Map<String, Object> record, String field) {
+        Object value = record.get(field);
+        return value == null ? null : value.toString();
+    }
+
+    private static String requireText(Map<String, Object> record, String field) {
+        String value = text(record, field);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("缺少字段 " + field);
+        }
+        return value;
+    }
+
+    private static Integer integer(Map<String, Object> record, String field) {
+        Object value = record.get(field);
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Number number) {
+            return number.intValue();
+        }
+        try {
+            return Integer.valueOf(value.toString().trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("字段 " + field + " 不是有效的整数: " + value);
+        }
+    }
+
+    private static Integer requireInteger(Map<String, Object> record, String field) {
+        Integer value = integer(record, field);
+        if (value == null) {
+            throw new IllegalArgumentException("缺少字段 " + field);
+        }
+        return value;
     }
 
     /**
-     * 构建 XML 格式的返回结果
+     * 批量查询关联的附件路径，已缓存的ID直接返回，其余ID合并为一次 IN 查询
+     * @param targetIds 关联的目标ID (system_issue_log的id)
+     * @return 目标ID到附件路径列表的映射，按 sort_order 排序
      */
-    private String buildResultXml(String id, String type, String createTableSql, String beforeTransformation,
-                                  String transformation, String businessContext, String status,
-                                  String newRequirement, List<String> attachmentPaths) {
-        StringBuilder sb = new StringBuilder();
+    private Map<String, List<String>> queryAttachmentPaths(Collection<String> targetIds) {
+        return issueCache.attachmentPaths(targetIds, this::loadAttachmentPaths);
+    }
+
+    private Map<String, List<String>> loadAttachmentPaths(Set<? extends String> targetIds) {
+        Map<String, List<String>> pathsByTarget = new HashMap<>();
+        if (targetIds.isEmpty()) {
+            return pathsByTarget;
+        }
+        for (String targetId : targetIds) {
+            pathsByTarget.put(targetId, new ArrayList<>());
+        }
+        String attachmentSql = "SELECT target_id, file_path FROM sys_attachment " +
+                               "WHERE target_id IN (" + placeholders(targetIds.size()) + ") AND type = 1 " +
+                               "ORDER BY target_id, sort_order ASC";
+
+        metrics.runJdbc("loadAttachmentPaths", () -> jdbcTemplate.query(attachmentSql,
+            (RowCallbackHandler) rs -> pathsByTarget.get(rs.getString("target_id")).add(rs.getString("file_path")),
+            targetIds.toArray()));
+        return pathsByTarget;
+    }
+
+    /**
+     * 渲染问题日志及其附件：先批量取附件，再一次遍历写入同一个缓冲区
+     * @param asList 是否包裹在 referenceInfoList 中（批量结果）
+     */
+    private String renderIssues(List<IssueLog> issues, boolean asList) {
+        List<String> ids = new ArrayList<>(issues.size());
+        for (IssueLog issue : issues) {
+            ids.add(issue.id());
+        }
+        Map<String, List<String>> attachments = queryAttachmentPaths(ids);
+
+        StringBuilder sb = new StringBuilder(1024 * issues.size());
+        if (asList) {
+            sb.append("<referenceInfoList>\n");
+        }
+        for (IssueLog issue : issues) {
+            appendResultXml(sb, issue, attachments.getOrDefault(issue.id(), Collections.emptyList()));
+            if (asList) {
+                sb.append("\n");
+            }
+        }
+        if (asList) {
+            sb.append("</referenceInfoList>");
+        }
+        return sb.toString();
+    }
+
+    private static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder(count * 3);
+        for (int i = 0; i < count; i++) {
+            sb.append(i == 0 ? "?" : ", ?");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 以 XML 格式追加一条问题日志
+     */
+    private void appendResultXml(StringBuilder sb, IssueLog issue, List<String> attachmentPaths) {
+        String id = issue.id();
+        String type = issue.type();
+        String createTableSql = issue.createTableSql();
+        String newRequirement = issue.newRequirement();
+        String beforeTransformation = issue.beforeTransformation();
+        String transformation = issue.transformation();
+        String businessContext = issue.businessContext();
+        String status = issue.status();
 
         sb.append("<referenceInfo>\n");
 
@@ -246,8 +735,14 @@ public class SystemLogTools {
         sb.append("    </attachmentPaths>\n");
 
         sb.append("</referenceInfo>");
+    }
 
-        return sb.toString();
+    private String summarize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String singleLine = text.replace('\n', ' ').replace('\r', ' ');
+        return singleLine.length() <= SUMMARY_LENGTH ? singleLine : singleLine.substring(0, SUMMARY_LENGTH) + "...";
     }
 
     /**
@@ -256,4 +751,43 @@ public class SystemLogTools {
     private String nullToEmpty(String value) {
         return value == null ? "" : value;
     }
+
+    /**
+     * 键集分页游标：上一页最后一行的 (created_at, id)，对外编码为不透明的 Base64URL 字符串
+     * 时间按 ISO 瞬时编码，保留 DATETIME(6) 的微秒；created_at 为 NULL 时编码为 "null"
+     */
+    private record PageCursor(Timestamp createdAt, String id) {
+
+        private static final String NULL_TIME = "null";
+
+        String encode() {
+            String raw = (createdAt == null ? NULL_TIME : createdAt.toInstant().toString()) + " " + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static PageCursor decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return null;
+            }
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(' ');
+            if (sep <= 0) {
+                throw new IllegalArgumentException("invalid cursor");
+            }
+            String time = raw.substring(0, sep);
+            try {
+                Timestamp createdAt = NULL_TIME.equals(time) ? null : Timestamp.from(Instant.parse(time));
+                return new PageCursor(createdAt, raw.substring(sep + 1));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("invalid cursor", e);
+            }
+        }
+    }
+
+    /**
+     * 问题日志记录
+     */
+    private record IssueLog(String id, String type, String createTableSql, String beforeTransformation,
+                            String transformation, String businessContext, String status,
+                            String newRequirement) {}
 }
@@ -10,4 +10,14 @@ import java.lang.annotation.*;
 @Documented
 public @interface Tool {
     String description() default "";
+
+    /**
+     * 结果只取决于参数的纯函数工具可标记为可缓存，相同参数的重复调用直接返回缓存结果
+     */
+    boolean cacheable() default false;
+
+    /**
+     * 可缓存工具的结果保留时间（秒）
+     */
+    long cacheTtlSeconds() default 600;
 }
@@ -0,0 +1,154 @@
+package com.example.mcp.tools;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 生成的分发器使用的参数转换
+ * 数字参数接受 JSON 数字或数字字符串（HTTP 查询参数），基本类型参数缺失时报错.
+ */
+public final class ToolArguments {
+
+    private ToolArguments() {
+    }
+
+    public static int toInt(Map<String, Object> args, String name) {
+        return number(require(args, name), name).intValue();
+    }
+
+    public static Integer toInteger(Map<String, Object> args, String name) {
+        Object value = args.get(name);
+        if (value == null || value instanceof Integer) {
+            return (Integer) value;
+        }
+        return number(value, name).intValue();
+    }
+
+    public static long toPrimitiveLong(Map<String, Object> args, String name) {
+        return number(require(args, name), name).longValue();
+    }
+
+    public static Long toLong(Map<String, Object> args, String name) {
+        Object value = args.get(name);
+        if (value == null || value instanceof Long) {
+            return (Long) value;
+        }
+        return number(value, name).longValue();
+    }
+
+    public static double toPrimitiveDouble(Map<String, Object> args, String name) {
+        return number(require(args, name), name).doubleValue();
+    }
+
+    public static Double toDouble(Map<String, Object> args, String name) {
+        Object value = args.get(name);
+        if (value == null || value instanceof Double) {
+            return (Double) value;
+        }
+        return number(value, name).doubleValue();
+    }
+
+    public static boolean toPrimitiveBoolean(Map<String, Object> args, String name) {
+        Object value = require(args, name);
+        return value instanceof Boolean b ? b : Boolean.parseBoolean(value.toString());
+    }
+
+    public static Boolean toBoolean(Map<String, Object> args, String name) {
+        Object value = args.get(name);
+        if (value == null || value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        return Boolean.valueOf(value.toString());
+    }
+
+    public static String toText(Map<String, Object> args, String name) {
+        Object value = args.get(name);
+        return value == null || value instanceof String ? (String) value : value.toString();
+    }
+
+    /**
+     * JSON 数组（List）或已经是 double[] 的参数转换为 double[]
+     */
+    public static double[] toDoubleArray(Map<String, Object> args, String name) {
+        Object value = args.get(name);
+        if (value == null || value instanceof double[]) {
+            return (double[]) value;
+        }
+        Collection<?> list = collection(value, name);
+        double[] result = new double[list.size()];
+        int i = 0;
+        for (Object element : list) {
+            result[i++] = number(element, name).doubleValue();
+        }
+        return result;
+    }
+
+    public static long[] toLongArray(Map<String, Object> args, String name) {
+        Object value = args.get(name);
+        if (value == null || value instanceof long[]) {
+            return (long[]) value;
+        }
+        Collection<?> list = collection(value, name);
+        long[] result = new long[list.size()];
+        int i = 0;
+        for (Object element : list) {
+            result[i++] = number(element, name).longValue();
+        }
+        return result;
+    }
+
+    public static int[] toIntArray(Map<String, Object> args, String name) {
+        Object value = args.get(name);
+        if (value == null || value instanceof int[]) {
+            return (int[]) value;
+        }
+        Collection<?> list = collection(value, name);
+        int[] result = new int[list.size()];
+        int i = 0;
+        for (Object element : list) {
+            result[i++] = number(element, name).intValue();
+        }
+        return result;
+    }
+
+    /**
+     * 其他类型（List、Map 等）按原样传入
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T cast(Map<String, Object> args, String name) {
+        return (T) args.get(name);
+    }
+
+    private static Object require(Map<String, Object> args, String name) {
+        Object value = args.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("缺少必填参数: " + name);
+        }
+        return value;
+    }
+
+    private static Number number(Object value, String name) {
+        if (value instanceof Number n) {
+            return n;
+        }
+        if (value == null) {
+            throw new IllegalArgumentException("参数 " + name + " 中存在空值");
+        }
+        try {
+            String text = value.toString().trim();
+            if (text.indexOf('.') < 0 && text.indexOf('e') < 0 && text.indexOf('E') < 0) {
+                return Long.parseLong(text);
+            }
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("参数 " + name + " 不是有效的数字: " + value);
+        }
+    }
+
+    private static Collection<?> collection(Object value, String name) {
+        if (value instanceof Collection<?> c) {
+            return c;
+        }
+        throw new IllegalArgumentException("参数 " + name + " 必须是数组");
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.mcp.tools;
+
+/**
+ * 工具定义，由注解处理器在编译期根据 {@link Tool}/{@link ToolParam} 生成
+ *
+ * @param name            工具名称，形如 calculator_add
+ * @param description     工具描述
+ * @param inputSchema     输入参数的 JSON Schema 文本
+ * @param cacheTtlSeconds 结果缓存时间（秒），0 表示不可缓存
+ * @param toolClass       工具方法所在的类
+ * @param handler         直接调用工具方法的分发器
+ */
+public record ToolDefinition(String name, String description, String inputSchema, long cacheTtlSeconds,
+                             Class<?> toolClass, ToolHandler handler) {}
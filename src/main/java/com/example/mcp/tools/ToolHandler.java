@@ -0,0 +1,18 @@
+package com.example.mcp.tools;
+
+import java.util.Map;
+
+/**
+ * 工具调用入口
+ * 编译期生成的分发器直接调用工具方法，不经过反射.
+ */
+@FunctionalInterface
+public interface ToolHandler {
+
+    /**
+     * @param target 工具对象
+     * @param args   按参数名传入的参数
+     * @return 工具方法的返回值，void 方法返回 null
+     */
+    Object call(Object target, Map<String, Object> args) throws Exception;
+}
@@ -10,4 +10,9 @@ import java.lang.annotation.*;
 @Documented
 public @interface ToolParam {
     String description() default "";
+
+    /**
+     * 是否必填，只有必填参数列入输入 schema 的 required；可选参数缺失时传入 null，因此不能是基本类型
+     */
+    boolean required() default true;
 }
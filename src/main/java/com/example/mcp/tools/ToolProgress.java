@@ -0,0 +1,55 @@
+package com.example.mcp.tools;
+
+import java.util.concurrent.Callable;
+
+/**
+ * 工具执行进度上报
+ * 客户端在 tools/call 的 _meta.progressToken 中提供令牌时，服务器在执行工具的线程上绑定监听器，
+ * 工具调用 {@link #report} 即以 notifications/progress 通知客户端；未绑定时（如 HTTP 调用）上报不做任何事.
+ */
+public final class ToolProgress {
+
+    private static final ThreadLocal<Listener> CURRENT = new ThreadLocal<>();
+
+    private ToolProgress() {
+    }
+
+    /**
+     * @param progress 已完成的数量，应单调递增
+     * @param total    总量，未知时为 null
+     * @param message  进度说明，可为 null
+     */
+    public static void report(long progress, Long total, String message) {
+        Listener listener = CURRENT.get();
+        if (listener != null) {
+            listener.onProgress(progress, total, message);
+        }
+    }
+
+    /**
+     * 当前调用是否有进度监听器，没有时工具可跳过组装进度消息
+     */
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * 在当前线程绑定监听器执行任务，listener 为 null 时直接执行
+     */
+    public static <T> T call(Listener listener, Callable<T> task) throws Exception {
+        if (listener == null) {
+            return task.call();
+        }
+        CURRENT.set(listener);
+        try {
+            return task.call();
+        } finally {
+            CURRENT.remove();
+        }
+    }
+
+    @FunctionalInterface
+    public interface Listener {
+        void onProgress(long progress, Long total, String message);
+    }
+}
@@ -1,12 +1,17 @@
 package com.example.mcp.tools;
 
+import com.example.mcp.user.User;
+import com.example.mcp.user.UserStore;
+import com.example.mcp.user.UserVisitor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.EnumSet;
+import java.util.List;
 
 /**
  * 用户工具集
@@ -17,79 +22,255 @@ public class UserTools {
 
     private static final Logger log = LoggerFactory.getLogger(UserTools.class);
     
-    // 模拟用户数据库
-    private static final Map<String, User> USER_DATABASE = new HashMap<>();
-
-    static {
-        // 初始化一些测试用户
-        USER_DATABASE.put("001", new User("001", "张三", "zhangsan@example.com", "工程师"));
-        USER_DATABASE.put("002", new User("002", "李四", "lisi@example.com", "设计师"));
-        USER_DATABASE.put("003", new User("003", "王五", "wangwu@example.com", "产品经理"));
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int PROGRESS_STEP = 100;
+
+    private final UserStore userStore;
+
+    public UserTools(UserStore userStore) {
+        this.userStore = userStore;
+        // 初始化一些测试用户，已存在时不覆盖
+        userStore.insert(new User("001", "张三", "zhangsan@example.com", "工程师"));
+        userStore.insert(new User("002", "李四", "lisi@example.com", "设计师"));
+        userStore.insert(new User("003", "王五", "wangwu@example.com", "产品经理"));
     }
 
     @Tool(description = "根据用户ID查询用户信息")
     public String getUserById(@ToolParam(description = "用户ID") String userId) {
         log.info("查询用户: {}", userId);
-        User user = USER_DATABASE.get(userId);
+        User user = userStore.get(userId);
         if (user != null) {
             return String.format("用户信息 - ID: %s, 姓名: %s, 邮箱: %s, 职位: %s",
-                    user.id, user.name, user.email, user.position);
+                    user.id(), user.name(), user.email(), user.position());
         }
-        return "未找到用户ID为 " + userId + " 的用户。现有用户ID: 001, 002, 003";
+        return "未找到用户ID为 " + userId + " 的用户。当前共有 " + userStore.size() + " 个用户";
+    }
+
+    @Tool(description = "按创建顺序分页列出用户，返回下一页游标")
+    public String listAllUsers(
+            @ToolParam(description = "每页条数，1-500，默认50", required = false) Integer pageSize,
+            @ToolParam(description = "上一页返回的游标，首页不传", required = false) String cursor,
+            @ToolParam(description = "输出字段（非必填），逗号分隔：id,name,email,position，默认 id,name,position", required = false) String fields) {
+        log.info("分页列出用户, pageSize={}, cursor={}, fields={}", pageSize, cursor, fields);
+        return page("用户列表（共 " + userStore.size() + " 个用户）:\n", "暂无用户",
+                userStore::scan, pageSize, cursor, fields);
     }
 
-    @Tool(description = "列出所有用户")
-    public String listAllUsers() {
-        log.info("列出所有用户");
-        StringBuilder sb = new StringBuilder("用户列表:\n");
-        for (User user : USER_DATABASE.values()) {
-            sb.append(String.format("- ID: %s, 姓名: %s, 职位: %s\n", user.id, user.name, user.position));
+    @Tool(description = "根据邮箱查询用户（忽略大小写）")
+    public String getUserByEmail(@ToolParam(description = "用户邮箱") String email) {
+        log.info("按邮箱查询用户: {}", email);
+        List<User> users = userStore.findByEmail(email, Integer.MAX_VALUE);
+        if (users.isEmpty()) {
+            return "未找到邮箱为 " + email + " 的用户";
+        }
+        StringBuilder sb = new StringBuilder("查询结果:\n");
+        for (User user : users) {
+            appendRow(sb, user, Field.DEFAULT);
         }
         return sb.toString();
     }
 
+    @Tool(description = "分页列出指定职位的用户，返回下一页游标")
+    public String listUsersByPosition(
+            @ToolParam(description = "职位名称（精确匹配）") String position,
+            @ToolParam(description = "每页条数，1-500，默认50", required = false) Integer pageSize,
+            @ToolParam(description = "上一页返回的游标，首页不传", required = false) String cursor,
+            @ToolParam(description = "输出字段（非必填），逗号分隔：id,name,email,position，默认 id,name,position", required = false) String fields) {
+        log.info("按职位列出用户: {}, pageSize={}, cursor={}", position, pageSize, cursor);
+        return page("职位 " + position + " 的用户:\n", "未找到职位为 \"" + position + "\" 的用户",
+                (after, visitor) -> userStore.findByPosition(position, after, visitor), pageSize, cursor, fields);
+    }
+
     @Tool(description = "创建新用户")
     public String createUser(
             @ToolParam(description = "用户姓名") String name,
             @ToolParam(description = "用户邮箱") String email,
             @ToolParam(description = "用户职位") String position) {
         log.info("创建用户: {}, {}, {}", name, email, position);
-        String newId = UUID.randomUUID().toString().substring(0, 3);
-        User newUser = new User(newId, name, email, position);
-        USER_DATABASE.put(newId, newUser);
+        if (name == null || name.isBlank()) {
+            return "错误：用户姓名不能为空";
+        }
+        User user;
+        try {
+            user = userStore.create(name, email, position);
+        } catch (IllegalArgumentException e) {
+            return "错误：" + e.getMessage();
+        } catch (UncheckedIOException e) {
+            log.error("保存用户失败", e);
+            return "错误：保存用户失败 - " + e.getCause().getMessage();
+        }
         return String.format("用户创建成功 - ID: %s, 姓名: %s, 邮箱: %s, 职位: %s",
-                newId, name, email, position);
+                user.id(), name, email, position);
+    }
+
+    @Tool(description = "根据姓名搜索用户，分页返回并附带下一页游标")
+    public String searchUserByName(
+            @ToolParam(description = "用户姓名（支持模糊匹配）") String name,
+            @ToolParam(description = "每页条数，1-500，默认50", required = false) Integer pageSize,
+            @ToolParam(description = "上一页返回的游标，首页不传", required = false) String cursor,
+            @ToolParam(description = "输出字段（非必填），逗号分隔：id,name,email,position，默认 id,name,position", required = false) String fields) {
+        log.info("搜索用户: {}, pageSize={}, cursor={}", name, pageSize, cursor);
+        return page("搜索结果:\n", "未找到姓名包含 \"" + name + "\" 的用户",
+                (after, visitor) -> userStore.searchByName(name, after, visitor), pageSize, cursor, fields);
     }
 
-    @Tool(description = "根据姓名搜索用户")
-    public String searchUserByName(@ToolParam(description = "用户姓名（支持模糊匹配）") String name) {
-        log.info("搜索用户: {}", name);
-        StringBuilder sb = new StringBuilder("搜索结果:\n");
-        boolean found = false;
-        for (User user : USER_DATABASE.values()) {
-            if (user.name.contains(name)) {
-                sb.append(String.format("- ID: %s, 姓名: %s, 职位: %s\n", user.id, user.name, user.position));
-                found = true;
+    /**
+     * 从游标之后取一页用户，逐行直接写入结果，多取一条用于判断是否还有下一页
+     * 调用方提供了进度令牌时每输出 PROGRESS_STEP 条上报一次进度
+     */
+    private static String page(String header, String emptyMessage, UserSource source,
+                               Integer pageSize, String cursor, String fields) {
+        int limit = pageSize == null ? DEFAULT_PAGE_SIZE : pageSize;
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return "错误：每页条数必须在 1-" + MAX_PAGE_SIZE + " 之间";
+        }
+        int after;
+        try {
+            after = UserCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return "错误：无效的游标";
+        }
+        EnumSet<Field> projection;
+        try {
+            projection = Field.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return "错误：" + e.getMessage();
+        }
+
+        StringBuilder sb = new StringBuilder(header);
+        int[] count = {0};
+        int[] last = {after};
+        boolean[] hasMore = {false};
+        boolean reportProgress = ToolProgress.isActive();
+        source.scan(after, (ordinal, user) -> {
+            if (count[0] == limit) {
+                hasMore[0] = true;
+                return false;
+            }
+            appendRow(sb, user, projection);
+            last[0] = ordinal;
+            if (++count[0] % PROGRESS_STEP == 0 && reportProgress) {
+                ToolProgress.report(count[0], (long) limit, "已输出 " + count[0] + " 条");
             }
+            return true;
+        });
+
+        if (count[0] == 0) {
+            return emptyMessage;
         }
-        if (!found) {
-            return "未找到姓名包含 \"" + name + "\" 的用户";
+        sb.append("本页 ").append(count[0]).append(" 条");
+        if (hasMore[0]) {
+            sb.append("，下一页游标: ").append(UserCursor.encode(last[0]));
+        } else {
+            sb.append("，已是最后一页");
         }
         return sb.toString();
     }
 
-    // 内部用户类
-    private static class User {
-        String id;
-        String name;
-        String email;
-        String position;
-
-        User(String id, String name, String email, String position) {
-            this.id = id;
-            this.name = name;
-            this.email = email;
-            this.position = position;
+    private static void appendRow(StringBuilder sb, User user, EnumSet<Field> projection) {
+        sb.append("- ");
+        boolean first = true;
+        for (Field field : projection) {
+            if (!first) {
+                sb.append(", ");
+            }
+            first = false;
+            String value = field.value(user);
+            sb.append(field.label).append(": ").append(value != null ? value : "");
+        }
+        sb.append('\n');
+    }
+
+    /**
+     * 按游标访问用户的数据源
+     */
+    @FunctionalInterface
+    private interface UserSource {
+        void scan(int after, UserVisitor visitor);
+    }
+
+    /**
+     * 可输出的用户字段，按声明顺序输出
+     */
+    private enum Field {
+        ID("id", "ID"),
+        NAME("name", "姓名"),
+        EMAIL("email", "邮箱"),
+        POSITION("position", "职位");
+
+        private static final EnumSet<Field> DEFAULT = EnumSet.of(ID, NAME, POSITION);
+
+        private final String key;
+        private final String label;
+
+        Field(String key, String label) {
+            this.key = key;
+            this.label = label;
+        }
+
+        String value(User user) {
+            return switch (this) {
+                case ID -> user.id();
+                case NAME -> user.name();
+                case EMAIL -> user.email();
+                case POSITION -> user.position();
+            };
+        }
+
+        static EnumSet<Field> parse(String fields) {
+            if (fields == null || fields.isBlank()) {
+                return DEFAULT;
+            }
+            EnumSet<Field> result = EnumSet.noneOf(Field.class);
+            for (String name : fields.split("[,，\\s]+")) {
+                if (name.isEmpty()) {
+                    continue;
+                }
+                Field field = null;
+                for (Field candidate : values()) {
+                    if (candidate.key.equalsIgnoreCase(name)) {
+                        field = candidate;
+                    }
+                }
+                if (field == null) {
+                    throw new IllegalArgumentException("未知字段 " + name + "，可选 id,name,email,position");
+                }
+                result.add(field);
+            }
+            return result.isEmpty() ? DEFAULT : result;
+        }
+    }
+
+    /**
+     * 分页游标：上一页最后一个用户的序号，Base64 编码后对调用方不透明
+     */
+    private static final class UserCursor {
+
+        private UserCursor() {
+        }
+
+        static String encode(int ordinal) {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(("u" + ordinal).getBytes(StandardCharsets.UTF_8));
+        }
+
+        /**
+         * @return 游标为空时返回 -1（从头开始）
+         */
+        static int decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return -1;
+            }
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            if (raw.length() < 2 || raw.charAt(0) != 'u') {
+                throw new IllegalArgumentException("invalid cursor");
+            }
+            int ordinal = Integer.parseInt(raw.substring(1));
+            if (ordinal < 0) {
+                throw new IllegalArgumentException("invalid cursor");
+            }
+            return ordinal;
         }
     }
 }
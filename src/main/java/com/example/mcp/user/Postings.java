@@ -0,0 +1,66 @@
+package com.example.mcp.user;
+
+import java.util.Arrays;
+
+/**
+ * 倒排表：升序的用户序号数组
+ * 只由持有写锁的单个写线程追加，读线程无锁读取：先读 size 再读数组，
+ * 写线程先换数组、写元素，最后写 size，读到的前 size 个元素总是完整的.
+ */
+final class Postings {
+
+    private static final int[] EMPTY = new int[0];
+
+    /** 在 {@link PostingsIndex} 中的键，其他索引不使用 */
+    final long key;
+    private volatile int[] ordinals = EMPTY;
+    private volatile int size;
+
+    Postings() {
+        this(0);
+    }
+
+    Postings(long key) {
+        this.key = key;
+    }
+
+    /**
+     * 追加序号；序号单调递增，与末尾相同时忽略（同一姓名中重复的字或字对）
+     */
+    void add(int ordinal) {
+        int n = size;
+        int[] current = ordinals;
+        if (n > 0 && current[n - 1] == ordinal) {
+            return;
+        }
+        if (n == current.length) {
+            current = Arrays.copyOf(current, n < 4 ? n + 1 : n + (n >> 1));
+            ordinals = current;
+        }
+        current[n] = ordinal;
+        size = n + 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 遍历大于 after 的序号，consumer 返回 false 时停止
+     */
+    void forEachAfter(int after, OrdinalVisitor visitor) {
+        int n = size;
+        int[] current = ordinals;
+        int index = Arrays.binarySearch(current, 0, n, after);
+        for (int i = index >= 0 ? index + 1 : -index - 1; i < n; i++) {
+            if (!visitor.visit(current[i])) {
+                return;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    interface OrdinalVisitor {
+        boolean visit(int ordinal);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.mcp.user;
+
+/**
+ * long 键 → 倒排表的开放寻址哈希表，避免装箱和 ConcurrentHashMap 的节点开销
+ * 只由持有写锁的单个写线程插入，读线程无锁查找：扩容时写线程构造新表后通过 volatile 发布，
+ * 槽位里的倒排表对象键为 final，读线程看到的槽位要么为空（视为未命中），要么是完整的倒排表.
+ */
+final class PostingsIndex {
+
+    private volatile Postings[] table = new Postings[1024];
+    private int size;
+
+    Postings get(long key) {
+        Postings[] current = table;
+        int mask = current.length - 1;
+        for (int i = slot(key, mask); ; i = (i + 1) & mask) {
+            Postings postings = current[i];
+            if (postings == null || postings.key == key) {
+                return postings;
+            }
+        }
+    }
+
+    /**
+     * 取键对应的倒排表，不存在时创建；只能由写线程调用
+     */
+    Postings getOrCreate(long key) {
+        Postings[] current = table;
+        int mask = current.length - 1;
+        int i = slot(key, mask);
+        for (Postings postings; (postings = current[i]) != null; i = (i + 1) & mask) {
+            if (postings.key == key) {
+                return postings;
+            }
+        }
+        Postings created = new Postings(key);
+        if ((size + 1) * 2 > current.length) {
+            current = resize(current);
+            mask = current.length - 1;
+            for (i = slot(key, mask); current[i] != null; i = (i + 1) & mask) {
+                // 找到空槽
+            }
+        }
+        current[i] = created;
+        size++;
+        table = current;
+        return created;
+    }
+
+    private static Postings[] resize(Postings[] old) {
+        Postings[] grown = new Postings[old.length * 2];
+        int mask = grown.length - 1;
+        for (Postings postings : old) {
+            if (postings != null) {
+                int i = slot(postings.key, mask);
+                while (grown[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                grown[i] = postings;
+            }
+        }
+        return grown;
+    }
+
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.mcp.user;
+
+/**
+ * 用户记录
+ */
+public record User(String id, String name, String email, String position) {
+}
@@ -0,0 +1,395 @@
+package com.example.mcp.user;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * 用户库持久化：二进制预写日志（WAL）加定期快照
+ * <p>
+ * 每次插入先追加一条带 CRC32C 的记录到当前日志段（users-&lt;起始序号&gt;.wal），再对内存可见.
+ * 每追加 snapshot-every 条记录切换到新日志段，并在后台线程把此前的全部用户通过内存映射写入
+ * users-&lt;序号&gt;.snapshot（先写临时文件再原子重命名），完成后删除更早的快照和日志段.
+ * 用户库只追加不修改，后台写快照时无需持有写锁.
+ * <p>
+ * 恢复时映射最新的有效快照批量载入，再只重放起始序号不早于该快照的日志段；
+ * 最后一个日志段末尾的残缺记录（写入中途崩溃）会被截掉.
+ */
+@Component
+public class UserJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(UserJournal.class);
+
+    private static final String PREFIX = "users-";
+    private static final String WAL_SUFFIX = ".wal";
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+    private static final String TMP_SUFFIX = ".tmp";
+    private static final int SNAPSHOT_MAGIC = 0x4D435553;
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int SNAPSHOT_HEADER = 24;
+    /** 读写文件时每次映射的窗口大小 */
+    private static final int WINDOW_BYTES = 64 << 20;
+
+    private final boolean enabled;
+    private final Path dataDir;
+    private final long snapshotEvery;
+    private final boolean fsync;
+    private final ExecutorService snapshotWriter;
+
+    /** 以下字段只由持有用户库写锁的线程访问 */
+    private FileChannel wal;
+    private long walEnd;
+    private long lastSeq;
+    private long lastSnapshotRequest;
+    private ByteBuffer scratch = ByteBuffer.allocate(256);
+    private volatile boolean snapshotRunning;
+
+    public UserJournal(@Value("${mcp.user.persistence.enabled:true}") boolean enabled,
+                       @Value("${mcp.user.persistence.data-dir:${user.home}/.claude/mcp-users}") String dataDir,
+                       @Value("${mcp.user.persistence.snapshot-every:100000}") long snapshotEvery,
+                       @Value("${mcp.user.persistence.fsync:false}") boolean fsync) {
+        this.enabled = enabled;
+        this.dataDir = Paths.get(dataDir);
+        this.snapshotEvery = Math.max(1, snapshotEvery);
+        this.fsync = fsync;
+        this.snapshotWriter = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "user-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 载入快照并重放日志尾部，然后打开日志段准备追加
+     * @param sink 按序号顺序接收恢复出的用户
+     * @return 最后一条记录的序号，没有数据时为 0
+     */
+    long recover(Consumer<User> sink) throws IOException {
+        long startNanos = System.nanoTime();
+        Files.createDirectories(dataDir);
+        deleteTempFiles();
+        TreeMap<Long, Path> snapshots = listFiles(SNAPSHOT_SUFFIX);
+        long snapshotSeq = 0;
+        List<User> loaded = List.of();
+        for (Map.Entry<Long, Path> snapshot : snapshots.descendingMap().entrySet()) {
+            loaded = readSnapshot(snapshot.getValue(), snapshot.getKey());
+            if (loaded != null) {
+                snapshotSeq = snapshot.getKey();
+                break;
+            }
+            log.warn("用户快照损坏，改用更早的快照: {}", snapshot.getValue());
+        }
+        if (loaded == null) {
+            loaded = List.of();
+        }
+        loaded.forEach(sink);
+        lastSeq = snapshotSeq;
+
+        TreeMap<Long, Path> segments = listFiles(WAL_SUFFIX);
+        Path lastSegment = null;
+        long replayed = 0;
+        for (Map.Entry<Long, Path> segment : segments.tailMap(snapshotSeq, true).entrySet()) {
+            lastSegment = segment.getValue();
+            long before = lastSeq;
+            long validEnd = replay(segment.getValue(), sink);
+            replayed += lastSeq - before;
+            long size = Files.size(segment.getValue());
+            if (validEnd < size) {
+                if (!segment.getKey().equals(segments.lastKey())) {
+                    throw new IOException("用户日志段中间损坏: " + segment.getValue() + " @" + validEnd);
+                }
+                log.warn("截掉用户日志末尾的残缺记录: {}, {} -> {} 字节", segment.getValue(), size, validEnd);
+                try (FileChannel channel = FileChannel.open(segment.getValue(), StandardOpenOption.WRITE)) {
+                    channel.truncate(validEnd);
+                }
+            }
+        }
+        lastSnapshotRequest = snapshotSeq;
+        if (lastSegment == null) {
+            lastSegment = segmentPath(lastSeq);
+        }
+        openSegment(lastSegment);
+        log.info("用户库已恢复, 快照序号={}, 快照记录={}, 重放日志记录={}, 耗时 {} ms", snapshotSeq, loaded.size(),
+                replayed, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        return lastSeq;
+    }
+
+    /**
+     * 追加一条记录；写入失败时回退到写入前的长度，记录不会生效
+     * 调用方需持有用户库写锁，seq 必须连续递增
+     */
+    void append(long seq, User user) {
+        scratch = UserRecordCodec.encode(scratch, seq, user);
+        try {
+            while (scratch.hasRemaining()) {
+                wal.write(scratch);
+            }
+            if (fsync) {
+                wal.force(false);
+            }
+        } catch (IOException e) {
+            try {
+                wal.truncate(walEnd);
+                wal.position(walEnd);
+            } catch (IOException rollback) {
+                e.addSuppressed(rollback);
+            }
+            throw new UncheckedIOException("写入用户日志失败", e);
+        }
+        walEnd += scratch.limit();
+        lastSeq = seq;
+    }
+
+    /**
+     * 距上次快照已追加 snapshot-every 条记录时，切换日志段并在后台写快照
+     * 调用方需持有用户库写锁；users 在后台线程中按序号 0..count-1 读取，对应用户此后不会再变
+     */
+    void maybeSnapshot(int count, IntFunction<User> users) {
+        if (lastSeq - lastSnapshotRequest < snapshotEvery || snapshotRunning) {
+            return;
+        }
+        long seq = lastSeq;
+        try {
+            openSegment(segmentPath(seq));
+        } catch (IOException e) {
+            log.warn("切换用户日志段失败，继续写入当前段", e);
+            return;
+        }
+        lastSnapshotRequest = seq;
+        snapshotRunning = true;
+        snapshotWriter.execute(() -> {
+            try {
+                writeSnapshot(seq, count, users);
+                deleteFiles(SNAPSHOT_SUFFIX, seq);
+                deleteFiles(WAL_SUFFIX, seq);
+            } catch (IOException | RuntimeException e) {
+                log.warn("写入用户快照失败，保留日志段，下次达到间隔时重试", e);
+            } finally {
+                snapshotRunning = false;
+            }
+        });
+    }
+
+    @PreDestroy
+    public void close() throws IOException, InterruptedException {
+        snapshotWriter.shutdown();
+        snapshotWriter.awaitTermination(30, TimeUnit.SECONDS);
+        if (wal != null) {
+            wal.force(false);
+            wal.close();
+        }
+    }
+
+    private void openSegment(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        if (wal != null) {
+            wal.force(false);
+            wal.close();
+        }
+        wal = channel;
+        walEnd = channel.size();
+    }
+
+    /**
+     * 按序号顺序写出快照：先算出精确大小，再按窗口映射写入临时文件，完成后原子重命名
+     */
+    private void writeSnapshot(long seq, int count, IntFunction<User> users) throws IOException {
+        long startNanos = System.nanoTime();
+        long total = SNAPSHOT_HEADER;
+        for (int i = 0; i < count; i++) {
+            total += UserRecordCodec.frameSize(users.apply(i));
+        }
+        Path target = dataDir.resolve(String.format("%s%020d%s", PREFIX, seq, SNAPSHOT_SUFFIX));
+        Path tmp = dataDir.resolve(target.getFileName() + TMP_SUFFIX);
+        ByteBuffer record = ByteBuffer.allocate(256);
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long position = 0;
+            MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.min(total, WINDOW_BYTES));
+            out.putInt(SNAPSHOT_MAGIC).putInt(SNAPSHOT_VERSION).putLong(seq).putLong(count);
+            for (int i = 0; i < count; i++) {
+                record = UserRecordCodec.encode(record, i + 1, users.apply(i));
+                if (record.remaining() > out.remaining()) {
+                    position += out.position();
+                    out.force();
+                    out = channel.map(FileChannel.MapMode.READ_WRITE, position,
+                            Math.min(total - position, Math.max(WINDOW_BYTES, record.remaining())));
+                }
+                out.put(record);
+            }
+            position += out.position();
+            out.force();
+            if (position != total) {
+                throw new IOException("用户快照大小不一致: " + position + " != " + total);
+            }
+            channel.force(true);
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        log.info("用户快照已写入: {}, 记录={}, {} 字节, 耗时 {} ms", target, count, total,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+
+    /**
+     * @return 快照中的全部用户，格式或校验不通过时返回 null
+     */
+    private List<User> readSnapshot(Path path, long seq) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < SNAPSHOT_HEADER) {
+                return null;
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, SNAPSHOT_HEADER);
+            long count = header.getLong(16);
+            if (header.getInt(0) != SNAPSHOT_MAGIC || header.getInt(4) != SNAPSHOT_VERSION
+                    || header.getLong(8) != seq || count < 0 || count > Integer.MAX_VALUE) {
+                return null;
+            }
+            List<User> users = new ArrayList<>((int) count);
+            long end = scan(channel, SNAPSHOT_HEADER, entry -> {
+                if (entry.seq() != users.size() + 1) {
+                    return false;
+                }
+                users.add(entry.user());
+                return true;
+            });
+            return end == channel.size() && users.size() == count ? users : null;
+        }
+    }
+
+    /**
+     * 重放日志段中序号大于 lastSeq 的记录
+     * @return 最后一条有效记录之后的偏移
+     */
+    private long replay(Path path, Consumer<User> sink) throws IOException {
+        long[] gap = {0};
+        long end;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            end = scan(channel, 0, entry -> {
+                if (entry.seq() <= lastSeq) {
+                    return true;
+                }
+                if (entry.seq() != lastSeq + 1) {
+                    gap[0] = entry.seq();
+                    return false;
+                }
+                sink.accept(entry.user());
+                lastSeq = entry.seq();
+                return true;
+            });
+        }
+        if (gap[0] != 0) {
+            // 中间的快照或日志段缺失，截断会丢数据，拒绝启动
+            throw new IOException("用户日志不连续: " + path + " 期望序号 " + (lastSeq + 1) + "，实际 " + gap[0]);
+        }
+        return end;
+    }
+
+    /**
+     * 按窗口映射文件并逐条解码记录，遇到残缺、损坏或 visitor 拒绝的记录时停止
+     * @return 最后一条被接受的记录之后的偏移
+     */
+    private static long scan(FileChannel channel, long start, EntryVisitor visitor) throws IOException {
+        long size = channel.size();
+        long position = start;
+        int needed = 0;
+        while (position < size) {
+            long window = Math.min(size - position, Math.max(WINDOW_BYTES, needed));
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, window);
+            needed = 0;
+            while (buffer.hasRemaining()) {
+                int frame = UserRecordCodec.peekFrameSize(buffer);
+                if (frame < 0) {
+                    return position + buffer.position();
+                }
+                if (frame == 0 || frame > buffer.remaining()) {
+                    if (position + window == size) {
+                        return position + buffer.position();
+                    }
+                    // 记录跨越窗口边界，从该记录处重新映射
+                    needed = Math.max(frame, UserRecordCodec.FRAME_HEADER);
+                    break;
+                }
+                UserRecordCodec.Entry entry = UserRecordCodec.decode(buffer);
+                if (entry == null || !visitor.visit(entry)) {
+                    return position + buffer.position();
+                }
+            }
+            position += buffer.position();
+        }
+        return position;
+    }
+
+    private Path segmentPath(long firstSeq) {
+        return dataDir.resolve(String.format("%s%020d%s", PREFIX, firstSeq, WAL_SUFFIX));
+    }
+
+    /**
+     * 文件名中的序号 → 路径
+     */
+    private TreeMap<Long, Path> listFiles(String suffix) throws IOException {
+        TreeMap<Long, Path> files = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dataDir, PREFIX + "*" + suffix)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                try {
+                    files.put(Long.parseLong(name.substring(PREFIX.length(), name.length() - suffix.length())), path);
+                } catch (NumberFormatException e) {
+                    log.warn("忽略无法识别的用户数据文件: {}", path);
+                }
+            }
+        }
+        return files;
+    }
+
+    /**
+     * 删除序号小于 beforeSeq 的文件
+     */
+    private void deleteFiles(String suffix, long beforeSeq) throws IOException {
+        for (Path path : listFiles(suffix).headMap(beforeSeq, false).values()) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * 删除写快照中途崩溃留下的临时文件
+     */
+    private void deleteTempFiles() throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dataDir, PREFIX + "*" + TMP_SUFFIX)) {
+            for (Path path : stream) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface EntryVisitor {
+        boolean visit(UserRecordCodec.Entry entry);
+    }
+}
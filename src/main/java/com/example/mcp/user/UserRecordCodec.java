@@ -0,0 +1,188 @@
+package com.example.mcp.user;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+/**
+ * 用户日志和快照共用的二进制记录格式
+ * <pre>
+ * int  长度（记录体字节数）
+ * int  记录体的 CRC32C
+ * 记录体: long 序号, 字符串 id, name, email, position
+ * 字符串: varint(UTF-8 字节数 + 1)，0 表示 null，随后是 UTF-8 字节
+ * </pre>
+ */
+final class UserRecordCodec {
+
+    static final int FRAME_HEADER = 8;
+    /** 单条记录体的上限，超出视为损坏 */
+    static final int MAX_BODY = 16 << 20;
+
+    private UserRecordCodec() {
+    }
+
+    /**
+     * 一条记录（含帧头）编码后的字节数
+     */
+    static int frameSize(User user) {
+        return FRAME_HEADER + Long.BYTES + stringSize(user.id()) + stringSize(user.name())
+                + stringSize(user.email()) + stringSize(user.position());
+    }
+
+    /**
+     * 检查记录体不超过 {@link #MAX_BODY}，超出的记录恢复时会被当作损坏，因此不允许写入
+     * @throws IllegalArgumentException 记录过大
+     */
+    static void checkSize(User user) {
+        // 先按字符数粗判，避免超长字符串的字节数溢出 int
+        long chars = length(user.id()) + length(user.name()) + length(user.email()) + length(user.position());
+        if (chars > MAX_BODY || frameSize(user) - FRAME_HEADER > MAX_BODY) {
+            throw new IllegalArgumentException("用户记录过大，编码后不能超过 " + (MAX_BODY >> 20) + " MiB");
+        }
+    }
+
+    /**
+     * 把记录编码到 scratch 中并翻转为可读状态，容量不足时返回新分配的缓冲区
+     * @throws IllegalArgumentException 记录过大
+     */
+    static ByteBuffer encode(ByteBuffer scratch, long seq, User user) {
+        checkSize(user);
+        int size = frameSize(user);
+        ByteBuffer buffer = scratch.capacity() >= size ? scratch.clear() : ByteBuffer.allocate(Math.max(size, scratch.capacity() * 2));
+        buffer.position(FRAME_HEADER);
+        buffer.putLong(seq);
+        putString(buffer, user.id());
+        putString(buffer, user.name());
+        putString(buffer, user.email());
+        putString(buffer, user.position());
+        int bodyLength = buffer.position() - FRAME_HEADER;
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), FRAME_HEADER, bodyLength);
+        buffer.putInt(0, bodyLength);
+        buffer.putInt(4, (int) crc.getValue());
+        return buffer.flip();
+    }
+
+    /**
+     * 下一条记录（含帧头）的字节数
+     * @return 剩余字节不足帧头时返回 0，长度字段非法时返回 -1
+     */
+    static int peekFrameSize(ByteBuffer buffer) {
+        if (buffer.remaining() < FRAME_HEADER) {
+            return 0;
+        }
+        int bodyLength = buffer.getInt(buffer.position());
+        return bodyLength < Long.BYTES + 4 || bodyLength > MAX_BODY ? -1 : FRAME_HEADER + bodyLength;
+    }
+
+    /**
+     * 解码一条完整的记录，调用前需用 {@link #peekFrameSize} 确认缓冲区中有完整记录
+     * @return 校验失败时返回 null，缓冲区位置不变
+     */
+    static Entry decode(ByteBuffer buffer) {
+        int start = buffer.position();
+        int bodyLength = buffer.getInt(start);
+        int checksum = buffer.getInt(start + 4);
+        ByteBuffer body = buffer.slice(start + FRAME_HEADER, bodyLength);
+        CRC32C crc = new CRC32C();
+        crc.update(body);
+        if ((int) crc.getValue() != checksum) {
+            return null;
+        }
+        body.rewind();
+        try {
+            long seq = body.getLong();
+            User user = new User(getString(body), getString(body), getString(body), getString(body));
+            if (body.hasRemaining() || user.id() == null || user.name() == null) {
+                return null;
+            }
+            buffer.position(start + FRAME_HEADER + bodyLength);
+            return new Entry(seq, user);
+        } catch (RuntimeException e) {
+            // 校验和碰巧一致但内容不合法
+            return null;
+        }
+    }
+
+    private static long length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    private static int stringSize(String value) {
+        if (value == null) {
+            return 1;
+        }
+        int bytes = utf8Length(value);
+        return varintSize(bytes + 1) + bytes;
+    }
+
+    private static int utf8Length(String value) {
+        int bytes = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                // 其余字符（含不成对的代理项，编码为 '?'）按 3 字节上限计
+                bytes += Character.isSurrogate(c) ? 1 : 3;
+            }
+        }
+        return bytes;
+    }
+
+    private static int varintSize(int value) {
+        int size = 1;
+        while ((value >>>= 7) != 0) {
+            size++;
+        }
+        return size;
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.put((byte) 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = bytes.length + 1;
+        while ((length & ~0x7F) != 0) {
+            buffer.put((byte) ((length & 0x7F) | 0x80));
+            length >>>= 7;
+        }
+        buffer.put((byte) length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            length |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                break;
+            }
+            if (shift >= 28) {
+                throw new IllegalArgumentException("varint 过长");
+            }
+        }
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length - 1];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 解码出的记录：序号和用户
+     */
+    record Entry(long seq, User user) {
+    }
+}
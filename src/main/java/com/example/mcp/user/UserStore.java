@@ -0,0 +1,330 @@
+package com.example.mcp.user;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * 内存用户库
+ * 主键表之外维护邮箱、职位两个二级索引和姓名的单字/双字 n-gram 倒排索引.
+ * 写入由单个写锁串行化，读取全部无锁：主键表和索引表是 ConcurrentHashMap，
+ * 用户按插入顺序分配序号存入分块数组，倒排表是只追加的升序序号数组.
+ * <p>
+ * 姓名子串搜索：一个字的查询直接取单字倒排表；更长的查询取其所有相邻字对中最短的倒排表，
+ * 逐个用 contains 校验候选，不需要扫描全部用户.
+ * <p>
+ * 配置了 {@link UserJournal} 时，每次插入先写日志再对读线程可见，启动时由日志恢复.
+ * 新用户的 ID 取自单调递增的序列（001、002 ...），恢复后从已有最大数字 ID 之后继续.
+ */
+@Component
+public class UserStore {
+
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    /** 双字键的标记位，与单字键（不超过 0xFFFF）区分 */
+    private static final long BIGRAM_FLAG = 1L << 32;
+
+    private final Map<String, User> byId = new ConcurrentHashMap<>();
+    /** 邮箱按规范化后的 64 位哈希索引，查询时再比对原值 */
+    private final PostingsIndex byEmail = new PostingsIndex();
+    private final Map<String, Postings> byPosition = new ConcurrentHashMap<>();
+    private final PostingsIndex nameGrams = new PostingsIndex();
+    private final Object writeLock = new Object();
+    private final UserJournal journal;
+    /** 下一个数字 ID，只在写锁内访问 */
+    private long nextId = 1;
+
+    /** 按序号存放的用户，分块扩容，已发布的块不再复制 */
+    private volatile User[][] chunks = new User[16][];
+    private volatile int count;
+
+    /**
+     * 仅内存、不持久化的用户库
+     */
+    public UserStore() {
+        this(null);
+    }
+
+    @Autowired
+    public UserStore(UserJournal journal) {
+        this.journal = journal == null || !journal.isEnabled() ? null : journal;
+    }
+
+    @PostConstruct
+    public void recover() throws IOException {
+        if (journal != null) {
+            synchronized (writeLock) {
+                journal.recover(this::index);
+            }
+        }
+    }
+
+    /**
+     * 以新分配的 ID 创建用户
+     * @throws IllegalArgumentException     记录编码后超过日志单条上限，用户未创建
+     * @throws java.io.UncheckedIOException 写入日志失败，用户未创建
+     */
+    public User create(String name, String email, String position) {
+        Objects.requireNonNull(name, "name");
+        synchronized (writeLock) {
+            while (byId.containsKey(formatId(nextId))) {
+                nextId++;
+            }
+            User user = new User(formatId(nextId), name, email, position);
+            add(user); // 建索引时推进 nextId
+            return user;
+        }
+    }
+
+    /**
+     * 以指定 ID 插入用户
+     * @return ID 已存在时返回 false，不覆盖原记录
+     * @throws IllegalArgumentException     记录编码后超过日志单条上限，用户未插入
+     * @throws java.io.UncheckedIOException 写入日志失败，用户未插入
+     */
+    public boolean insert(User user) {
+        Objects.requireNonNull(user.id(), "id");
+        Objects.requireNonNull(user.name(), "name");
+        synchronized (writeLock) {
+            if (byId.containsKey(user.id())) {
+                return false;
+            }
+            add(user);
+            return true;
+        }
+    }
+
+    /**
+     * 先写日志再建索引，记录过大或日志写入失败时不做任何修改
+     * 未启用日志时同样限制记录大小，开关日志不改变可创建的用户
+     */
+    private void add(User user) {
+        UserRecordCodec.checkSize(user);
+        if (journal != null) {
+            journal.append(count + 1L, user);
+        }
+        index(user);
+        if (journal != null) {
+            journal.maybeSnapshot(count, this::user);
+        }
+    }
+
+    /**
+     * 分配序号、建立索引并发布，调用方需持有写锁
+     */
+    private void index(User user) {
+        int ordinal = count;
+        store(ordinal, user);
+        byEmail.getOrCreate(emailHash(emailKey(user.email()))).add(ordinal);
+        postings(byPosition, Objects.requireNonNullElse(user.position(), "")).add(ordinal);
+        String name = user.name();
+        for (int i = 0; i < name.length(); i++) {
+            nameGrams.getOrCreate(unigram(name.charAt(i))).add(ordinal);
+            if (i + 1 < name.length()) {
+                nameGrams.getOrCreate(bigram(name.charAt(i), name.charAt(i + 1))).add(ordinal);
+            }
+        }
+        count = ordinal + 1;
+        byId.put(user.id(), user);
+        long numericId = parseId(user.id());
+        if (numericId >= nextId) {
+            nextId = numericId + 1;
+        }
+    }
+
+    public User get(String id) {
+        return id == null ? null : byId.get(id);
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * 按邮箱查询，忽略大小写和首尾空白
+     */
+    public List<User> findByEmail(String email, int limit) {
+        String key = emailKey(email);
+        Postings postings = byEmail.get(emailHash(key));
+        if (postings == null || limit <= 0) {
+            return List.of();
+        }
+        List<User> result = new ArrayList<>(Math.min(limit, postings.size()));
+        postings.forEachAfter(-1, ordinal -> {
+            User user = user(ordinal);
+            if (key.equals(emailKey(user.email()))) {
+                result.add(user);
+            }
+            return result.size() < limit;
+        });
+        return result;
+    }
+
+    public List<User> findByPosition(String position, int limit) {
+        return collect(visitor -> findByPosition(position, -1, visitor), limit);
+    }
+
+    /**
+     * 按插入顺序访问职位为 position、序号大于 after 的用户
+     */
+    public void findByPosition(String position, int after, UserVisitor visitor) {
+        Postings postings = position == null ? null : byPosition.get(position);
+        if (postings != null) {
+            postings.forEachAfter(after, ordinal -> visitor.visit(ordinal, user(ordinal)));
+        }
+    }
+
+    /**
+     * 按插入顺序列出用户
+     */
+    public List<User> list(int limit) {
+        return collect(visitor -> scan(-1, visitor), limit);
+    }
+
+    /**
+     * 按插入顺序访问序号大于 after 的用户，after 为 -1 时从头开始
+     */
+    public void scan(int after, UserVisitor visitor) {
+        int n = count;
+        for (int ordinal = Math.max(0, after + 1); ordinal < n; ordinal++) {
+            if (!visitor.visit(ordinal, user(ordinal))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 姓名包含 fragment 的用户，按插入顺序返回
+     */
+    public List<User> searchByName(String fragment, int limit) {
+        return collect(visitor -> searchByName(fragment, -1, visitor), limit);
+    }
+
+    /**
+     * 按插入顺序访问姓名包含 fragment、序号大于 after 的用户；fragment 为空时访问全部用户
+     */
+    public void searchByName(String fragment, int after, UserVisitor visitor) {
+        if (fragment == null || fragment.isEmpty()) {
+            scan(after, visitor);
+            return;
+        }
+        Postings candidates;
+        if (fragment.length() == 1) {
+            candidates = nameGrams.get(unigram(fragment.charAt(0)));
+        } else {
+            candidates = null;
+            for (int i = 0; i + 1 < fragment.length(); i++) {
+                Postings postings = nameGrams.get(bigram(fragment.charAt(i), fragment.charAt(i + 1)));
+                if (postings == null) {
+                    return;
+                }
+                if (candidates == null || postings.size() < candidates.size()) {
+                    candidates = postings;
+                }
+            }
+        }
+        if (candidates == null) {
+            return;
+        }
+        // 一两个字的查询由倒排表精确命中，更长的查询需要校验候选
+        boolean verify = fragment.length() > 2;
+        candidates.forEachAfter(after, ordinal -> {
+            User user = user(ordinal);
+            if (verify && !user.name().contains(fragment)) {
+                return true;
+            }
+            return visitor.visit(ordinal, user);
+        });
+    }
+
+    private static List<User> collect(Consumer<UserVisitor> source, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        List<User> result = new ArrayList<>(Math.min(limit, 256));
+        source.accept((ordinal, user) -> {
+            result.add(user);
+            return result.size() < limit;
+        });
+        return result;
+    }
+
+    private User user(int ordinal) {
+        return chunks[ordinal >>> CHUNK_BITS][ordinal & CHUNK_MASK];
+    }
+
+    private void store(int ordinal, User user) {
+        int chunkIndex = ordinal >>> CHUNK_BITS;
+        User[][] current = chunks;
+        if (chunkIndex == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        if (current[chunkIndex] == null) {
+            current[chunkIndex] = new User[CHUNK_SIZE];
+        }
+        current[chunkIndex][ordinal & CHUNK_MASK] = user;
+        chunks = current;
+    }
+
+    private static <K> Postings postings(Map<K, Postings> index, K key) {
+        Postings postings = index.get(key);
+        return postings != null ? postings : index.computeIfAbsent(key, k -> new Postings());
+    }
+
+    private static String formatId(long id) {
+        String digits = Long.toString(id);
+        return digits.length() >= 3 ? digits : "00".substring(digits.length() - 1) + digits;
+    }
+
+    /**
+     * @return 纯数字 ID 的数值，其他 ID 返回 -1
+     */
+    private static long parseId(String id) {
+        if (id.isEmpty() || id.length() > 18) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static String emailKey(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * FNV-1a 64 位哈希
+     */
+    private static long emailHash(String key) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash = (hash ^ key.charAt(i)) * 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    private static long unigram(char c) {
+        return c;
+    }
+
+    private static long bigram(char first, char second) {
+        return BIGRAM_FLAG | ((long) first << 16) | second;
+    }
+}
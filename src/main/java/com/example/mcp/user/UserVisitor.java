@@ -0,0 +1,14 @@
+package com.example.mcp.user;
+
+/**
+ * 按插入顺序逐个访问用户
+ * 序号是用户在库中的插入位置，从 0 开始且不会改变，可作为分页游标
+ */
+@FunctionalInterface
+public interface UserVisitor {
+
+    /**
+     * @return 返回 false 时停止访问
+     */
+    boolean visit(int ordinal, User user);
+}
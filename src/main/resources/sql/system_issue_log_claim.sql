@@ -0,0 +1,16 @@
+-- 问题日志领取队列所需的字段与索引（MySQL 8.0+，依赖 FOR UPDATE SKIP LOCKED）
+-- claimed_by:       领取该问题的工作者标识
+-- lease_expires_at: 领取租约到期时间，到期仍处于处理中(status=2)的记录可被重新领取
+--
+-- 领取分两条语句，均按 idx_issue_log_status_created 顺序扫描并在取满 LIMIT 后停止：
+--   WHERE status = 1 ORDER BY created_at LIMIT ? FOR UPDATE SKIP LOCKED
+--   WHERE status = 2 AND lease_expires_at < NOW() ORDER BY created_at LIMIT ? FOR UPDATE SKIP LOCKED
+-- 隔离级别要求：领取事务必须运行在 READ COMMITTED 下（SystemLogTools 已为领取事务单独设置）.
+-- 在 REPEATABLE READ 下，InnoDB 对扫描到但不满足条件的行（如租约未到期的处理中记录）也会持有
+-- 行锁和间隙锁直到事务结束，并发的工作者会把这些行全部 SKIP 掉，导致领取不到任何记录.
+
+ALTER TABLE system_issue_log
+    ADD COLUMN claimed_by VARCHAR(64) NULL COMMENT '领取者',
+    ADD COLUMN lease_expires_at DATETIME NULL COMMENT '领取租约到期时间';
+
+CREATE INDEX idx_issue_log_status_created ON system_issue_log (status, created_at);
@@ -0,0 +1,6 @@
+-- 问题日志键集分页所需的索引
+-- InnoDB 二级索引隐含主键 id，因此 (created_at) 等价于 (created_at, id)，
+-- 与 sql/system_issue_log_claim.sql 中的 (status, created_at) 一起覆盖无过滤和按状态过滤的分页
+
+CREATE INDEX idx_issue_log_created ON system_issue_log (created_at);
+CREATE INDEX idx_issue_log_creator_created ON system_issue_log (creator, created_at);
@@ -0,0 +1,412 @@
+package com.example.mcp.processor;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.*;
+import javax.lang.model.util.*;
+import javax.tools.Diagnostic;
+import java.io.*;
+import java.util.*;
+
+/**
+ * @Tool/@ToolParam 注解处理器
+ * 编译期为每个工具类生成 XxxToolsDispatcher（工具定义 + 直接调用的分发器），
+ * 并生成汇总全部工具的 GeneratedToolRegistry，运行时注册工具不再需要反射.
+ * <p>
+ * 工具名称和输入 schema 的生成规则与 ToolRegistry 的反射实现一致.
+ * 注解按名称引用，处理器本身不依赖工具包，在 generate-sources 阶段先行单独编译.
+ */
+@SupportedAnnotationTypes(ToolRegistryProcessor.TOOL)
+public class ToolRegistryProcessor extends AbstractProcessor {
+
+    static final String TOOL = "com.example.mcp.tools.Tool";
+    static final String TOOL_PARAM = "com.example.mcp.tools.ToolParam";
+    static final String REGISTRY_PACKAGE = "com.example.mcp.tools";
+    static final String REGISTRY_NAME = "GeneratedToolRegistry";
+
+    private static final String API = "com.example.mcp.tools.";
+
+    private boolean generated;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement toolAnnotation = processingEnv.getElementUtils().getTypeElement(TOOL);
+        if (generated || toolAnnotation == null || roundEnv.processingOver()) {
+            return false;
+        }
+
+        // 按类分组，类和方法都按名称排序，保证生成结果稳定
+        Map<TypeElement, List<ExecutableElement>> toolsByClass =
+                new TreeMap<>(Comparator.comparing(t -> t.getQualifiedName().toString()));
+        for (Element element : roundEnv.getElementsAnnotatedWith(toolAnnotation)) {
+            ExecutableElement method = (ExecutableElement) element;
+            if (validate(method)) {
+                toolsByClass.computeIfAbsent((TypeElement) method.getEnclosingElement(), k -> new ArrayList<>())
+                        .add(method);
+            }
+        }
+        if (toolsByClass.isEmpty()) {
+            return false;
+        }
+
+        List<String> dispatchers = new ArrayList<>();
+        for (Map.Entry<TypeElement, List<ExecutableElement>> entry : toolsByClass.entrySet()) {
+            entry.getValue().sort(Comparator.comparing(m -> m.getSimpleName().toString()));
+            dispatchers.add(writeDispatcher(entry.getKey(), entry.getValue()));
+        }
+        writeRegistry(toolsByClass.keySet(), dispatchers);
+        generated = true;
+        return false;
+    }
+
+    private boolean validate(ExecutableElement method) {
+        Element owner = method.getEnclosingElement();
+        if (owner.getKind() != ElementKind.CLASS || owner.getEnclosingElement().getKind() != ElementKind.PACKAGE) {
+            error(method, "@Tool 方法必须声明在顶层类中");
+            return false;
+        }
+        if (!owner.getModifiers().contains(Modifier.PUBLIC)) {
+            error(owner, "包含 @Tool 方法的类必须是 public");
+            return false;
+        }
+        if (!method.getModifiers().contains(Modifier.PUBLIC) || method.getModifiers().contains(Modifier.STATIC)) {
+            error(method, "@Tool 方法必须是 public 的实例方法");
+            return false;
+        }
+        for (VariableElement param : method.getParameters()) {
+            if (param.asType().getKind().isPrimitive() && converter(param.asType()) == null) {
+                error(param, "不支持的工具参数类型: " + param.asType());
+                return false;
+            }
+            if (param.asType().getKind().isPrimitive() && !required(param)) {
+                error(param, "可选参数缺失时为 null，不能使用基本类型: " + param.asType());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 生成工具类对应的分发器，返回其全限定名
+     */
+    private String writeDispatcher(TypeElement toolClass, List<ExecutableElement> methods) {
+        String packageName = processingEnv.getElementUtils().getPackageOf(toolClass).getQualifiedName().toString();
+        String className = toolClass.getSimpleName() + "Dispatcher";
+        String toolType = toolClass.getQualifiedName().toString();
+
+        StringBuilder src = new StringBuilder();
+        src.append("package ").append(packageName).append(";\n\n");
+        src.append("import java.util.List;\n");
+        src.append("import java.util.Map;\n\n");
+        src.append("/**\n * ").append(toolClass.getSimpleName()).append(" 的工具定义和分发器，由 ")
+                .append(getClass().getSimpleName()).append(" 生成，请勿修改\n */\n");
+        src.append("@javax.annotation.processing.Generated(\"").append(getClass().getName()).append("\")\n");
+        src.append("public final class ").append(className).append(" implements ").append(API).append("ToolHandler {\n\n");
+
+        src.append("    public static final List<").append(API).append("ToolDefinition> DEFINITIONS = List.of(");
+        for (int i = 0; i < methods.size(); i++) {
+            ExecutableElement method = methods.get(i);
+            src.append(i == 0 ? "\n" : ",\n");
+            src.append("            new ").append(API).append("ToolDefinition(")
+                    .append(literal(toolName(toolClass, method))).append(", ")
+                    .append(literal(description(method, TOOL, ""))).append(",\n                    ")
+                    .append(literal(inputSchema(method))).append(", ")
+                    .append(cacheTtlSeconds(method)).append("L,\n                    ")
+                    .append(toolType).append(".class, new ").append(className).append("(").append(i).append("))");
+        }
+        src.append(");\n\n");
+
+        src.append("    private final int index;\n\n");
+        src.append("    private ").append(className).append("(int index) {\n");
+        src.append("        this.index = index;\n");
+        src.append("    }\n\n");
+
+        src.append("    @Override\n");
+        src.append("    public Object call(Object target, Map<String, Object> args) throws Exception {\n");
+        src.append("        ").append(toolType).append(" tools = (").append(toolType).append(") target;\n");
+        src.append("        switch (index) {\n");
+        for (int i = 0; i < methods.size(); i++) {
+            ExecutableElement method = methods.get(i);
+            boolean isVoid = method.getReturnType().getKind() == TypeKind.VOID;
+            src.append("            case ").append(i).append(":\n");
+            src.append(isVoid ? "                " : "                return ").append("tools.")
+                    .append(method.getSimpleName()).append("(");
+            List<? extends VariableElement> params = method.getParameters();
+            for (int p = 0; p < params.size(); p++) {
+                if (p > 0) {
+                    src.append(",\n                        ");
+                } else if (params.size() > 1) {
+                    src.append("\n                        ");
+                }
+                src.append(argument(params.get(p)));
+            }
+            src.append(");\n");
+            if (isVoid) {
+                src.append("                return null;\n");
+            }
+        }
+        src.append("            default:\n");
+        src.append("                throw new IllegalStateException(\"未知的工具序号: \" + index);\n");
+        src.append("        }\n");
+        src.append("    }\n");
+        src.append("}\n");
+
+        String qualifiedName = packageName.isEmpty() ? className : packageName + "." + className;
+        write(qualifiedName, src, toolClass);
+        return qualifiedName;
+    }
+
+    private void writeRegistry(Collection<TypeElement> toolClasses, List<String> dispatchers) {
+        StringBuilder src = new StringBuilder();
+        src.append("package ").append(REGISTRY_PACKAGE).append(";\n\n");
+        src.append("import java.util.ArrayList;\n");
+        src.append("import java.util.Collections;\n");
+        src.append("import java.util.List;\n\n");
+        src.append("/**\n * 编译期生成的全部工具定义，由 ").append(getClass().getSimpleName()).append(" 生成，请勿修改\n */\n");
+        src.append("@javax.annotation.processing.Generated(\"").append(getClass().getName()).append("\")\n");
+        src.append("public final class ").append(REGISTRY_NAME).append(" {\n\n");
+
+        src.append("    private static final List<Class<?>> TOOL_CLASSES = List.of(");
+        int i = 0;
+        for (TypeElement toolClass : toolClasses) {
+            src.append(i++ == 0 ? "\n" : ",\n").append("            ").append(toolClass.getQualifiedName()).append(".class");
+        }
+        src.append(");\n\n");
+
+        src.append("    private static final List<ToolDefinition> DEFINITIONS;\n\n");
+        src.append("    static {\n");
+        src.append("        List<ToolDefinition> definitions = new ArrayList<>();\n");
+        for (String dispatcher : dispatchers) {
+            src.append("        definitions.addAll(").append(dispatcher).append(".DEFINITIONS);\n");
+        }
+        src.append("        DEFINITIONS = Collections.unmodifiableList(definitions);\n");
+        src.append("    }\n\n");
+
+        src.append("    private ").append(REGISTRY_NAME).append("() {\n    }\n\n");
+        src.append("    /**\n     * 全部工具定义\n     */\n");
+        src.append("    public static List<ToolDefinition> definitions() {\n        return DEFINITIONS;\n    }\n\n");
+        src.append("    /**\n     * 包含 @Tool 方法的全部工具类\n     */\n");
+        src.append("    public static List<Class<?>> toolClasses() {\n        return TOOL_CLASSES;\n    }\n");
+        src.append("}\n");
+
+        write(REGISTRY_PACKAGE + "." + REGISTRY_NAME, src, toolClasses.toArray(new Element[0]));
+    }
+
+    private void write(String qualifiedName, CharSequence source, Element... originatingElements) {
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, originatingElements).openWriter()) {
+            writer.write(source.toString());
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "生成 " + qualifiedName + " 失败: " + e);
+        }
+    }
+
+    private static String toolName(TypeElement toolClass, ExecutableElement method) {
+        return (toolClass.getSimpleName().toString().replace("Tools", "") + "_" + method.getSimpleName()).toLowerCase();
+    }
+
+    /**
+     * 读取注解的 description 属性，注解不存在时返回 fallback
+     */
+    private String description(Element element, String annotationType, String fallback) {
+        Object value = annotationValue(element, annotationType, "description");
+        return value != null ? (String) value : fallback;
+    }
+
+    /**
+     * 可缓存工具的缓存时间（秒），不可缓存时为 0
+     */
+    private long cacheTtlSeconds(ExecutableElement method) {
+        if (!Boolean.TRUE.equals(annotationValue(method, TOOL, "cacheable"))) {
+            return 0;
+        }
+        long ttl = ((Number) annotationValue(method, TOOL, "cacheTtlSeconds")).longValue();
+        if (ttl <= 0) {
+            error(method, "可缓存工具的 cacheTtlSeconds 必须大于 0");
+        }
+        return Math.max(ttl, 0);
+    }
+
+    /**
+     * 读取注解属性（含默认值），注解不存在时返回 null
+     */
+    private Object annotationValue(Element element, String annotationType, String attribute) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationType)) {
+                for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value :
+                        processingEnv.getElementUtils().getElementValuesWithDefaults(mirror).entrySet()) {
+                    if (value.getKey().getSimpleName().contentEquals(attribute)) {
+                        return value.getValue().getValue();
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 输入 schema 的 JSON 文本：type/properties/required，与 Jackson 序列化反射版本的结果逐字节相同
+     */
+    private String inputSchema(ExecutableElement method) {
+        StringBuilder json = new StringBuilder("{\"type\":\"object\",\"properties\":{");
+        List<? extends VariableElement> params = method.getParameters();
+        for (int i = 0; i < params.size(); i++) {
+            VariableElement param = params.get(i);
+            String name = param.getSimpleName().toString();
+            String type = jsonType(param.asType());
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(jsonString(name)).append(":{\"type\":").append(jsonString(type));
+            if ("array".equals(type)) {
+                json.append(",\"items\":{\"type\":").append(jsonString(jsonType(elementType(param.asType())))).append('}');
+            }
+            json.append(",\"description\":").append(jsonString(description(param, TOOL_PARAM, name))).append('}');
+        }
+        json.append('}');
+        List<String> required = new ArrayList<>();
+        for (VariableElement param : params) {
+            if (required(param)) {
+                required.add(jsonString(param.getSimpleName().toString()));
+            }
+        }
+        if (!required.isEmpty()) {
+            json.append(",\"required\":[").append(String.join(",", required)).append(']');
+        }
+        return json.append('}').toString();
+    }
+
+    /**
+     * 参数是否必填，未标注 @ToolParam 的参数视为必填
+     */
+    private boolean required(VariableElement param) {
+        return !Boolean.FALSE.equals(annotationValue(param, TOOL_PARAM, "required"));
+    }
+
+    private String jsonType(TypeMirror type) {
+        Types types = processingEnv.getTypeUtils();
+        TypeKind kind = type.getKind();
+        if (kind == TypeKind.INT || kind == TypeKind.LONG || kind == TypeKind.DOUBLE
+                || isClass(type, "java.lang.Integer") || isClass(type, "java.lang.Long") || isClass(type, "java.lang.Double")) {
+            return "number";
+        }
+        if (kind == TypeKind.BOOLEAN || isClass(type, "java.lang.Boolean")) {
+            return "boolean";
+        }
+        if (kind == TypeKind.ARRAY || isSubtype(types, type, "java.util.Collection")) {
+            return "array";
+        }
+        if (isSubtype(types, type, "java.util.Map")) {
+            return "object";
+        }
+        return "string";
+    }
+
+    /**
+     * 数组/集合参数的元素类型，无法确定时按字符串处理
+     */
+    private TypeMirror elementType(TypeMirror type) {
+        if (type instanceof ArrayType array) {
+            return array.getComponentType();
+        }
+        if (type instanceof DeclaredType declared && !declared.getTypeArguments().isEmpty()) {
+            TypeMirror arg = declared.getTypeArguments().get(0);
+            if (arg.getKind() == TypeKind.DECLARED) {
+                return processingEnv.getTypeUtils().erasure(arg);
+            }
+        }
+        return processingEnv.getElementUtils().getTypeElement("java.lang.String").asType();
+    }
+
+    private boolean isClass(TypeMirror type, String className) {
+        return type.getKind() == TypeKind.DECLARED
+                && ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().contentEquals(className);
+    }
+
+    private boolean isSubtype(Types types, TypeMirror type, String className) {
+        TypeElement element = processingEnv.getElementUtils().getTypeElement(className);
+        return element != null && type.getKind() == TypeKind.DECLARED
+                && types.isAssignable(types.erasure(type), types.erasure(element.asType()));
+    }
+
+    /**
+     * 参数取值表达式，按参数类型选择 ToolArguments 中的转换方法
+     */
+    private String argument(VariableElement param) {
+        String name = literal(param.getSimpleName().toString());
+        String converter = converter(param.asType());
+        if (converter != null) {
+            return API + "ToolArguments." + converter + "(args, " + name + ")";
+        }
+        return API + "ToolArguments.<" + param.asType() + ">cast(args, " + name + ")";
+    }
+
+    private String converter(TypeMirror type) {
+        switch (type.getKind()) {
+            case INT:
+                return "toInt";
+            case LONG:
+                return "toPrimitiveLong";
+            case DOUBLE:
+                return "toPrimitiveDouble";
+            case BOOLEAN:
+                return "toPrimitiveBoolean";
+            case ARRAY:
+                return switch (((ArrayType) type).getComponentType().getKind()) {
+                    case DOUBLE -> "toDoubleArray";
+                    case LONG -> "toLongArray";
+                    case INT -> "toIntArray";
+                    default -> null;
+                };
+            case DECLARED:
+                String name = ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+                return switch (name) {
+                    case "java.lang.Integer" -> "toInteger";
+                    case "java.lang.Long" -> "toLong";
+                    case "java.lang.Double" -> "toDouble";
+                    case "java.lang.Boolean" -> "toBoolean";
+                    case "java.lang.String" -> "toText";
+                    default -> null;
+                };
+            default:
+                return null;
+        }
+    }
+
+    private String literal(String value) {
+        return processingEnv.getElementUtils().getConstantExpression(value);
+    }
+
+    private static String jsonString(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                case '\b' -> sb.append("\\b");
+                case '\f' -> sb.append("\\f");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04X", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.mcp.expr;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 表达式解析和编译：优先级、结合性、一元负号与乘方、函数、常量折叠、嵌套深度和错误消息
+ */
+class CompiledExpressionTest {
+
+    /** 表格中的变量取值 */
+    private static final Map<String, Double> VARIABLES = Map.of("x", 2.0, "y", 3.0, "long_name1", 10.0);
+
+    @ParameterizedTest(name = "{0} = {1}")
+    @CsvSource(delimiter = '|', value = {
+            "1 + 2 * 3             | 7",
+            "(1 + 2) * 3           | 9",
+            "10 - 4 - 3            | 3",
+            "100 / 10 / 5          | 2",
+            "7 % 4 * 2             | 6",
+            "2 ^ 3 ^ 2             | 512",
+            "(2 ^ 3) ^ 2           | 64",
+            "-2 ^ 2                | -4",
+            "(-2) ^ 2              | 4",
+            "2 ^ -1                | 0.5",
+            "--3                   | 3",
+            "-+-3                  | 3",
+            "2 * -x                | -4",
+            "x ^ 2 + y ^ 2         | 13",
+            "x * y - y / x         | 4.5",
+            "long_name1 % y        | 1",
+            "1e3 + 2.5E-1 + .5     | 1000.75",
+            "sqrt(16) + abs(-3)    | 7",
+            "pow(2, 10)            | 1024",
+            "hypot(3, 4)           | 5",
+            "min(5, x, 9)          | 2",
+            "max(1)                | 1",
+            "max(x, y, 1, 2.5)     | 3",
+            "round(2.5) + floor(-1.5) + ceil(1.2) | 3",
+            "sign(-x) * ln(e)      | -1",
+            "log10(1000) + log2(8) | 6",
+            "cos(pi)               | -1",
+            "atan2(1, 1) * 4 / pi  | 1",
+            "  ( ( x ) )           | 2",
+    })
+    void evaluates(String source, double expected) {
+        assertEquals(expected, evaluate(source), 1e-12);
+    }
+
+    @ParameterizedTest(name = "{0} -> {1}")
+    @CsvSource(delimiter = '|', value = {
+            "1 +            | 第 4 个字符处表达式不完整",
+            "(1 + 2         | 第 7 个字符处缺少 ')'",
+            "1 + 2)         | 第 6 个字符处多余的字符 ')'",
+            "1 $ 2          | 第 3 个字符处多余的字符 '$'",
+            "1 + * 2        | 第 5 个字符处无法识别的字符 '*'",
+            "1.2.3          | 第 1 个字符处无效的数字 '1.2.3'",
+            "max(1,)        | 第 7 个字符处无法识别的字符 ')'",
+            "foo(1)         | 未知函数 foo",
+            "sqrt(1, 2)     | 函数 sqrt 需要 1 个参数，实际 2 个",
+            "pow(2)         | 函数 pow 需要 2 个参数，实际 1 个",
+            "min()          | 函数 min 至少需要 1 个参数",
+    })
+    void reportsErrors(String source, String message) {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> CompiledExpression.compile(source));
+        assertTrue(error.getMessage().startsWith(message), error.getMessage());
+    }
+
+    @Test
+    void rejectsBlankTooLongAndTooDeep() {
+        assertThrows(IllegalArgumentException.class, () -> CompiledExpression.compile(" "));
+        assertThrows(IllegalArgumentException.class, () -> CompiledExpression.compile(null));
+        assertTrue(assertThrows(IllegalArgumentException.class,
+                () -> CompiledExpression.compile("1+".repeat(ExpressionParser.MAX_LENGTH / 2) + "1"))
+                .getMessage().startsWith("表达式过长"));
+        for (String deep : List.of("(".repeat(300) + "1" + ")".repeat(300), "-".repeat(300) + "1", "2^".repeat(300) + "2")) {
+            String message = assertThrows(IllegalArgumentException.class, () -> CompiledExpression.compile(deep)).getMessage();
+            assertTrue(message.contains("嵌套层数超过"), message);
+        }
+        // 限制以内的嵌套可以正常编译
+        assertEquals(1, CompiledExpression.compile("(".repeat(50) + "1" + ")".repeat(50)).evaluate());
+    }
+
+    @Test
+    void foldsConstantsAndOrdersVariablesByFirstUse() {
+        CompiledExpression constant = CompiledExpression.compile("2 * pi + max(1, sqrt(4)) ^ 2");
+        assertTrue(constant.isConstant());
+        assertEquals(List.of(), constant.variables());
+        assertEquals(2 * Math.PI + 4, constant.evaluate(), 1e-12);
+
+        CompiledExpression compiled = CompiledExpression.compile("y * x + y - z");
+        assertFalse(compiled.isConstant());
+        assertEquals(List.of("y", "x", "z"), compiled.variables());
+        assertEquals(3 * 2 + 3 - 1, compiled.evaluate(3, 2, 1));
+        assertThrows(IllegalArgumentException.class, () -> compiled.evaluate(1, 2));
+    }
+
+    @Test
+    void nonFiniteResultsAreReturnedAsIs() {
+        assertEquals(Double.POSITIVE_INFINITY, CompiledExpression.compile("1 / 0").evaluate());
+        assertTrue(Double.isNaN(CompiledExpression.compile("sqrt(x)").evaluate(-1)));
+    }
+
+    private static double evaluate(String source) {
+        CompiledExpression compiled = CompiledExpression.compile(source);
+        double[] values = compiled.variables().stream().mapToDouble(VARIABLES::get).toArray();
+        return compiled.evaluate(values);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.mcp.server;
+
+import com.example.mcp.metrics.MetricsRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 结果缓存的并发调用：相同调用只执行一次，执行者被取消时等待者重新执行，而不是收到取消
+ */
+class ToolResultCacheTest {
+
+    private final MetricsRegistry metrics = new MetricsRegistry();
+    private final ToolResultCache cache = new ToolResultCache(new MockEnvironment(), metrics);
+    private final ToolRegistry.ToolInfo info = new ToolRegistry.ToolInfo("cachetest_echo", "", "{}", 60,
+            null, null, metrics.metrics(MetricsRegistry.TOOL, "cachetest_echo"));
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @Test
+    void waiterReloadsWhenLoaderIsCancelled() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch cancel = new CountDownLatch(1);
+        Future<Object> first = executor.submit(() -> cache.get(info, Map.of("a", 1), () -> {
+            loading.countDown();
+            cancel.await();
+            throw new CancellationException();
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        AtomicInteger loads = new AtomicInteger();
+        Thread[] waiter = new Thread[1];
+        Future<Object> second = executor.submit(() -> {
+            waiter[0] = Thread.currentThread();
+            return cache.get(info, Map.of("a", 1.0), () -> "结果" + loads.incrementAndGet());
+        });
+        awaitParked(waiter);
+        cancel.countDown();
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(CancellationException.class, error.getCause());
+        assertEquals("结果1", second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+        // 重新执行的结果已缓存
+        assertEquals("结果1", cache.get(info, Map.of("a", 1), () -> fail("不应再次执行")));
+    }
+
+    @Test
+    void waiterSharesOrdinaryFailure() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Object> first = executor.submit(() -> cache.get(info, Map.of(), () -> {
+            loading.countDown();
+            release.await();
+            throw new IllegalStateException("失败");
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        Thread[] waiter = new Thread[1];
+        Future<Object> second = executor.submit(() -> {
+            waiter[0] = Thread.currentThread();
+            return cache.get(info, Map.of(), () -> fail("等待者不应执行"));
+        });
+        awaitParked(waiter);
+        release.countDown();
+
+        assertInstanceOf(IllegalStateException.class,
+                assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS)).getCause());
+        assertEquals("失败", assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS))
+                .getCause().getMessage());
+        // 失败不缓存
+        assertEquals("重试", cache.get(info, Map.of(), () -> "重试"));
+    }
+
+    /**
+     * 等待第二个调用阻塞在第一个调用的 future 上
+     */
+    private static void awaitParked(Thread[] waiter) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (waiter[0] == null || waiter[0].getState() != Thread.State.WAITING) {
+            assertTrue(System.nanoTime() < deadline, "等待者未阻塞");
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.mcp.user;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 倒排表和开放寻址索引：多次扩容后全部键仍可查到，倒排表按游标遍历与朴素过滤一致
+ */
+class PostingsIndexTest {
+
+    @Test
+    void findsEveryKeyAcrossResizes() {
+        PostingsIndex index = new PostingsIndex();
+        Map<Long, Postings> expected = new HashMap<>();
+        Random random = new Random(3);
+        for (int i = 0; i < 20_000; i++) {
+            // 混入低位相同、只有高位不同的键，以及负数键
+            long key = switch (i % 3) {
+                case 0 -> (long) i << 32;
+                case 1 -> -i;
+                default -> random.nextLong();
+            };
+            Postings postings = index.getOrCreate(key);
+            assertSame(postings, index.getOrCreate(key));
+            expected.putIfAbsent(key, postings);
+            assertSame(expected.get(key), postings);
+        }
+        expected.forEach((key, postings) -> {
+            assertSame(postings, index.get(key));
+            assertEquals(key, postings.key);
+        });
+        assertNull(index.get(Long.MIN_VALUE + 12345));
+    }
+
+    @Test
+    void forEachAfterVisitsOrdinalsAboveCursor() {
+        Postings postings = new Postings(1);
+        List<Integer> ordinals = new ArrayList<>();
+        for (int ordinal = 0; ordinal < 1_000; ordinal += 1 + ordinal % 5) {
+            postings.add(ordinal);
+            ordinals.add(ordinal);
+        }
+        assertEquals(ordinals.size(), postings.size());
+        for (int after : new int[] {-1, 0, 1, 2, 500, 998, 999, 5_000}) {
+            List<Integer> visited = new ArrayList<>();
+            postings.forEachAfter(after, ordinal -> visited.add(ordinal));
+            assertEquals(ordinals.stream().filter(ordinal -> ordinal > after).toList(), visited, "after=" + after);
+        }
+        List<Integer> firstThree = new ArrayList<>();
+        postings.forEachAfter(-1, ordinal -> firstThree.add(ordinal) && firstThree.size() < 3);
+        assertEquals(ordinals.subList(0, 3), firstThree);
+    }
+}
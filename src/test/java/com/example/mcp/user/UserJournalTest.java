@@ -0,0 +1,231 @@
+package com.example.mcp.user;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 用户日志和快照：写入、切段、快照后恢复，残缺或损坏的尾部记录被截掉，中间缺失或损坏时拒绝启动
+ */
+class UserJournalTest {
+
+    @TempDir
+    Path dataDir;
+
+    private final List<UserJournal> opened = new ArrayList<>();
+
+    @AfterEach
+    void closeJournals() throws Exception {
+        for (UserJournal journal : opened) {
+            journal.close();
+        }
+    }
+
+    @Test
+    void recoversFromSnapshotAndLogTail() throws Exception {
+        UserStore store = open(100);
+        List<User> expected = createUsers(store, 250);
+        closeAll();
+
+        List<Path> snapshots = files(".snapshot");
+        assertEquals(1, snapshots.size(), "旧快照应在新快照写完后删除");
+        long snapshotSeq = seqOf(snapshots.get(0));
+        assertTrue(snapshotSeq >= 100 && snapshotSeq <= 250);
+        for (Path segment : files(".wal")) {
+            assertTrue(seqOf(segment) >= snapshotSeq, "快照之前的日志段应已删除: " + segment);
+        }
+        assertTrue(files(".tmp").isEmpty());
+
+        UserStore recovered = open(100);
+        assertEquals(expected, recovered.list(Integer.MAX_VALUE));
+        assertEquals("251", recovered.create("新用户", "new@example.com", "工程师").id());
+    }
+
+    @Test
+    void truncatesTornTailRecord() throws Exception {
+        List<User> expected = createUsers(open(1_000), 10);
+        closeAll();
+
+        Path segment = lastSegment();
+        long size = Files.size(segment);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 3);
+        }
+
+        UserStore recovered = open(1_000);
+        assertEquals(expected.subList(0, 9), recovered.list(Integer.MAX_VALUE));
+        assertEquals(size - UserRecordCodec.frameSize(expected.get(9)), Files.size(segment), "残缺记录应被截掉");
+        assertEquals("010", recovered.create("补写", "again@example.com", "设计师").id());
+        closeAll();
+
+        UserStore reopened = open(1_000);
+        assertEquals(10, reopened.size());
+        assertEquals("补写", reopened.get("010").name());
+    }
+
+    @Test
+    void truncatesRecordWithBadChecksum() throws Exception {
+        List<User> expected = createUsers(open(1_000), 5);
+        closeAll();
+
+        Path segment = lastSegment();
+        flipByte(segment, Files.size(segment) - 2);
+
+        UserStore recovered = open(1_000);
+        assertEquals(expected.subList(0, 4), recovered.list(Integer.MAX_VALUE));
+        assertEquals("005", recovered.create("补写", "again@example.com", "设计师").id());
+    }
+
+    @Test
+    void ignoresLeftoverSnapshotTempFile() throws Exception {
+        List<User> expected = createUsers(open(1_000), 3);
+        closeAll();
+        Path tmp = dataDir.resolve(String.format("users-%020d.snapshot.tmp", 3));
+        Files.write(tmp, new byte[] {1, 2, 3});
+
+        assertEquals(expected, open(1_000).list(Integer.MAX_VALUE));
+        assertFalse(Files.exists(tmp));
+    }
+
+    @Test
+    void refusesToStartOnSequenceGap() throws Exception {
+        writeSegment(0, user(1), user(2), null, user(4));
+
+        IOException error = assertThrows(IOException.class, () -> open(1_000));
+        assertTrue(error.getMessage().contains("不连续"), error.getMessage());
+    }
+
+    @Test
+    void refusesToStartOnCorruptionBeforeLastSegment() throws Exception {
+        Path first = writeSegment(0, user(1), user(2), user(3));
+        writeSegment(3, user(4), user(5));
+        flipByte(first, Files.size(first) - 2);
+
+        IOException error = assertThrows(IOException.class, () -> open(1_000));
+        assertTrue(error.getMessage().contains("中间损坏"), error.getMessage());
+    }
+
+    @Test
+    void codecRoundTripsNullsAndLongStrings() {
+        User user = new User("42", "名字😀".repeat(5000), null, "");
+        ByteBuffer frame = UserRecordCodec.encode(ByteBuffer.allocate(16), 7, user);
+        assertEquals(UserRecordCodec.frameSize(user), frame.remaining());
+        assertEquals(frame.remaining(), UserRecordCodec.peekFrameSize(frame));
+
+        UserRecordCodec.Entry entry = UserRecordCodec.decode(frame);
+        assertNotNull(entry);
+        assertEquals(7, entry.seq());
+        assertEquals(user, entry.user());
+        assertFalse(frame.hasRemaining());
+    }
+
+    @Test
+    void codecRejectsShortBadLengthAndBadChecksum() {
+        assertEquals(0, UserRecordCodec.peekFrameSize(ByteBuffer.allocate(UserRecordCodec.FRAME_HEADER - 1)));
+        assertEquals(-1, UserRecordCodec.peekFrameSize(ByteBuffer.allocate(16).putInt(0, 3)));
+        assertEquals(-1, UserRecordCodec.peekFrameSize(ByteBuffer.allocate(16).putInt(0, UserRecordCodec.MAX_BODY + 1)));
+
+        ByteBuffer frame = UserRecordCodec.encode(ByteBuffer.allocate(256), 1, user(1));
+        frame.put(frame.limit() - 1, (byte) (frame.get(frame.limit() - 1) ^ 1));
+        assertNull(UserRecordCodec.decode(frame));
+        assertEquals(0, frame.position());
+    }
+
+    @Test
+    void rejectsRecordsOverMaxBodyOnWrite() throws Exception {
+        UserStore store = open(1_000);
+        createUsers(store, 2);
+        String huge = "a".repeat(UserRecordCodec.MAX_BODY);
+        assertThrows(IllegalArgumentException.class, () -> store.create(huge, null, null));
+        // 多字节字符：字符数未超限，编码后超限
+        String wide = "名".repeat(UserRecordCodec.MAX_BODY / 3);
+        assertThrows(IllegalArgumentException.class, () -> store.create("用户", wide, null));
+        assertThrows(IllegalArgumentException.class, () -> store.insert(new User("900", huge, null, null)));
+        assertThrows(IllegalArgumentException.class,
+                () -> UserRecordCodec.encode(ByteBuffer.allocate(16), 1, new User("1", huge, null, null)));
+        assertEquals(2, store.size());
+        assertEquals("003", store.create("正常", null, null).id(), "被拒绝的创建不应占用 ID");
+        closeAll();
+
+        assertEquals(3, open(1_000).size());
+    }
+
+    private UserStore open(long snapshotEvery) throws IOException {
+        UserJournal journal = new UserJournal(true, dataDir.toString(), snapshotEvery, false);
+        opened.add(journal);
+        UserStore store = new UserStore(journal);
+        store.recover();
+        return store;
+    }
+
+    private void closeAll() throws Exception {
+        closeJournals();
+        opened.clear();
+    }
+
+    private static List<User> createUsers(UserStore store, int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            users.add(store.create("用户" + i, "user" + i + "@example.com", i % 2 == 0 ? "工程师" : null));
+        }
+        return users;
+    }
+
+    private static User user(int seq) {
+        return new User(String.format("%03d", seq), "用户" + seq, "user" + seq + "@example.com", "工程师");
+    }
+
+    /**
+     * 按序号 firstSeq+1 起写一个日志段，users 中的 null 表示跳过该序号
+     */
+    private Path writeSegment(long firstSeq, User... users) throws IOException {
+        Path path = dataDir.resolve(String.format("users-%020d.wal", firstSeq));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            long seq = firstSeq;
+            for (User user : users) {
+                seq++;
+                if (user != null) {
+                    channel.write(UserRecordCodec.encode(ByteBuffer.allocate(256), seq, user));
+                }
+            }
+        }
+        return path;
+    }
+
+    private static void flipByte(Path path, long offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            channel.read(b, offset);
+            b.put(0, (byte) (b.get(0) ^ 0x5A)).rewind();
+            channel.write(b, offset);
+        }
+    }
+
+    private Path lastSegment() throws IOException {
+        List<Path> segments = files(".wal");
+        return segments.get(segments.size() - 1);
+    }
+
+    private List<Path> files(String suffix) throws IOException {
+        try (Stream<Path> stream = Files.list(dataDir)) {
+            return stream.filter(path -> path.getFileName().toString().endsWith(suffix)).sorted().toList();
+        }
+    }
+
+    private static long seqOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring("users-".length(), name.indexOf('.')));
+    }
+}
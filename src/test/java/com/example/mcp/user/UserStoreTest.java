@@ -0,0 +1,139 @@
+package com.example.mcp.user;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 用户库索引与朴素扫描对照：姓名子串搜索（单字、双字、更长查询、代理对）、邮箱、职位和按游标分页
+ */
+class UserStoreTest {
+
+    /** 姓名字符表，含增补平面字符（代理对）和 ASCII */
+    private static final String[] ALPHABET = {"王", "李", "张", "伟", "芳", "敏", "a", "b", "𠀀", "😀", "😁"};
+    private static final String[] POSITIONS = {"工程师", "设计师", "产品经理"};
+    private static final int USERS = 5_000;
+
+    private final Random random = new Random(7);
+    private UserStore store;
+    private List<User> all;
+
+    @BeforeEach
+    void setUp() {
+        store = new UserStore();
+        all = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            StringBuilder name = new StringBuilder();
+            int length = 1 + random.nextInt(5);
+            for (int j = 0; j < length; j++) {
+                name.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+            }
+            String email = "User" + i + "@Example.com";
+            String position = i % 10 == 0 ? null : POSITIONS[random.nextInt(POSITIONS.length)];
+            all.add(store.create(name.toString(), email, position));
+        }
+    }
+
+    @Test
+    void searchMatchesNaiveContainsScan() {
+        Set<String> queries = new LinkedHashSet<>();
+        for (String c : ALPHABET) {
+            // 单个代码单元，包括代理对的高位和低位
+            for (char unit : c.toCharArray()) {
+                queries.add(String.valueOf(unit));
+            }
+            queries.add(c);
+        }
+        for (int i = 0; i < 300; i++) {
+            String name = all.get(random.nextInt(USERS)).name();
+            int from = random.nextInt(name.length());
+            queries.add(name.substring(from, from + 1 + random.nextInt(name.length() - from)));
+        }
+        queries.add("王李张伟芳敏");
+        queries.add("ab😀");
+        queries.add("不存在");
+        queries.add("");
+
+        for (String query : queries) {
+            assertEquals(naive(user -> user.name().contains(query)), store.searchByName(query, Integer.MAX_VALUE),
+                    "查询 \"" + query + "\"");
+        }
+    }
+
+    @Test
+    void searchRespectsLimit() {
+        List<User> expected = naive(user -> user.name().contains("王"));
+        assertTrue(expected.size() > 10);
+        assertEquals(expected.subList(0, 10), store.searchByName("王", 10));
+        assertEquals(List.of(), store.searchByName("王", 0));
+    }
+
+    @Test
+    void pagingAcrossCursorMatchesFullResult() {
+        for (String query : List.of("", "王", "😀", "伟芳", "a😀b")) {
+            assertEquals(naive(user -> user.name().contains(query)),
+                    page((after, visitor) -> store.searchByName(query, after, visitor)), "查询 \"" + query + "\"");
+        }
+        for (String position : POSITIONS) {
+            assertEquals(naive(user -> position.equals(user.position())),
+                    page((after, visitor) -> store.findByPosition(position, after, visitor)), position);
+        }
+        assertEquals(all, page(store::scan));
+    }
+
+    @Test
+    void findsByEmailIgnoringCaseAndPosition() {
+        for (int i = 0; i < USERS; i += 97) {
+            assertEquals(List.of(all.get(i)), store.findByEmail("  user" + i + "@EXAMPLE.COM ", 5));
+        }
+        assertEquals(List.of(), store.findByEmail("nobody@example.com", 5));
+        assertEquals(naive(user -> "设计师".equals(user.position())), store.findByPosition("设计师", Integer.MAX_VALUE));
+        assertEquals(List.of(), store.findByPosition("不存在", 10));
+    }
+
+    @Test
+    void insertKeepsIdsUniqueAndCreateSkipsTakenIds() {
+        assertFalse(store.insert(new User("001", "重复", null, null)));
+        assertEquals(all.get(0), store.get("001"));
+        assertTrue(store.insert(new User("9000", "手动", null, null)));
+        assertEquals("9001", store.create("下一个", null, null).id());
+        assertEquals(USERS + 2, store.size());
+    }
+
+    private List<User> naive(Predicate<User> filter) {
+        return all.stream().filter(filter).toList();
+    }
+
+    /**
+     * 每页取 7 条，以本页最后一条的序号作为下一页的游标，拼接全部页
+     */
+    private static List<User> page(PagedSource source) {
+        List<User> result = new ArrayList<>();
+        int[] cursor = {-1};
+        while (true) {
+            int before = result.size();
+            source.visit(cursor[0], (ordinal, user) -> {
+                assertTrue(ordinal > cursor[0], "序号必须大于游标");
+                result.add(user);
+                cursor[0] = ordinal;
+                return result.size() - before < 7;
+            });
+            if (result.size() - before < 7) {
+                return result;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface PagedSource {
+        void visit(int after, UserVisitor visitor);
+    }
+}